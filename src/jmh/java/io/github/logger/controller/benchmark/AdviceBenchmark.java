@@ -0,0 +1,116 @@
+package io.github.logger.controller.benchmark;
+
+import io.github.logger.controller.aspect.GenericControllerAspect;
+import io.github.logger.controller.bean.RequestContext;
+import io.github.logger.controller.utils.JsonUtil;
+import io.github.logger.controller.utils.RequestUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead the aspect adds to a controller call, on both the normal and the exception path. The logger
+ * has INFO enabled but discards everything, so only advice dispatch, message building and serialization are measured.
+ *
+ * <p>The {@code twoAdvice} benchmarks are the baseline of exceptions being logged by a separate {@code @AfterThrowing}
+ * advice, as they used to be, instead of by the around advice itself.
+ *
+ * <p>Run with {@code ./gradlew jmh}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AdviceBenchmark {
+
+    private BenchmarkController plainController;
+
+    private BenchmarkController advisedController;
+
+    private BenchmarkController twoAdviceController;
+
+    @Setup
+    public void setup() {
+        plainController = new BenchmarkController();
+        advisedController = createAdvisedController(false);
+        twoAdviceController = createAdvisedController(true);
+    }
+
+    private static BenchmarkController createAdvisedController(boolean afterThrowingAdvice) {
+        GenericControllerAspect aspect = new GenericControllerAspect(
+                new DiscardingLogger(),
+                new JsonUtil(),
+                new FixedRequestUtil()
+        );
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new BenchmarkController());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        if (afterThrowingAdvice) {
+            proxyFactory.addAspect(new AfterThrowingAspect());
+        }
+        return proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public Object plainCall() {
+        return plainController.getUser(1);
+    }
+
+    @Benchmark
+    public Object advisedCall() {
+        return advisedController.getUser(1);
+    }
+
+    @Benchmark
+    public Object twoAdviceCall() {
+        return twoAdviceController.getUser(1);
+    }
+
+    @Benchmark
+    public Object plainFailingCall() {
+        try {
+            return plainController.getUserFailing(1);
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object advisedFailingCall() {
+        try {
+            return advisedController.getUserFailing(1);
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object twoAdviceFailingCall() {
+        try {
+            return twoAdviceController.getUserFailing(1);
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Request details are normally read from the current servlet request and security context, neither of which exist
+     * outside a web container.
+     */
+    private static class FixedRequestUtil extends RequestUtil {
+
+        @Override
+        public RequestContext getRequestContext() {
+            return new RequestContext()
+                    .add("url", "https://www.example.com/users/1")
+                    .add("username", "Jean-Luc Picard");
+        }
+    }
+}
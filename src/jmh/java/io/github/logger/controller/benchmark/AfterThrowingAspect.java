@@ -0,0 +1,25 @@
+package io.github.logger.controller.benchmark;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Restores the separate {@code @AfterThrowing} advice exceptions used to be logged by, matched by the same pointcuts as
+ * the around advice. Exceptions are logged by the around advice now, so this advice does nothing itself and adds only
+ * what a second advice costs: another pointcut match, another interceptor in the chain and a joinpoint per failure.
+ */
+@Aspect
+public class AfterThrowingAspect {
+
+    private static final String POINTCUTS = "io.github.logger.controller.aspect.GenericControllerAspect.";
+
+    @AfterThrowing(
+            pointcut = POINTCUTS + "allPublicControllerMethodsPointcut() && "
+                    + POINTCUTS + "methodLoggingNotDisabledPointcut() && "
+                    + POINTCUTS + "methodOrClassLoggingEnabledPointcut()",
+            throwing = "t")
+    public void onException(JoinPoint joinPoint, Throwable t) {
+        // the joinpoint is still created, as it was for the advice logging the exception
+    }
+}
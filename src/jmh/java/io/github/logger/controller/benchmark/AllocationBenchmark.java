@@ -0,0 +1,77 @@
+package io.github.logger.controller.benchmark;
+
+import io.github.logger.controller.aspect.GenericControllerAspect;
+import io.github.logger.controller.bean.RequestContext;
+import io.github.logger.controller.utils.JsonUtil;
+import io.github.logger.controller.utils.RequestUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures memory allocated per advised call in each logging mode. Run with the GC profiler, which reports allocation
+ * per call as {@code gc.alloc.rate.norm}, and compare against {@code plainCall}:
+ *
+ * <p>{@code ./gradlew jmh -PjmhInclude=AllocationBenchmark}
+ *
+ * <p>The difference should be little more than the logged strings themselves, the returned value's JSON and the
+ * request context, which in a web container is created per request anyway.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AllocationBenchmark {
+
+    @Param({"separate", "consolidated", "structured"})
+    public String loggingMode;
+
+    private BenchmarkController plainController;
+
+    private BenchmarkController advisedController;
+
+    @Setup
+    public void setup() {
+        plainController = new BenchmarkController();
+
+        GenericControllerAspect aspect = new GenericControllerAspect(
+                new DiscardingLogger(),
+                new JsonUtil(),
+                new FixedRequestUtil()
+        );
+        aspect.setConsolidatedLogging("consolidated".equals(loggingMode));
+        aspect.setStructuredLogging("structured".equals(loggingMode));
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new BenchmarkController());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        advisedController = proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public Object plainCall() {
+        return plainController.getUser(1);
+    }
+
+    @Benchmark
+    public Object advisedCall() {
+        return advisedController.getUser(1);
+    }
+
+    private static class FixedRequestUtil extends RequestUtil {
+
+        @Override
+        public RequestContext getRequestContext() {
+            return new RequestContext()
+                    .add("url", "https://www.example.com/users/1")
+                    .add("username", "Jean-Luc Picard");
+        }
+    }
+}
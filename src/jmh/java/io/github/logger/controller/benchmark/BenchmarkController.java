@@ -0,0 +1,45 @@
+package io.github.logger.controller.benchmark;
+
+import io.github.logger.controller.annotation.Logging;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+@Logging
+public class BenchmarkController {
+
+    static final IllegalStateException EXCEPTION = new IllegalStateException("Intentionally thrown exception");
+
+    @RequestMapping("/users/{userId}")
+    public User getUser(@PathVariable int userId) {
+        return new User(userId, "foobar@example.com");
+    }
+
+    @RequestMapping("/users/{userId}/failing")
+    public User getUserFailing(@PathVariable int userId) {
+        throw EXCEPTION;
+    }
+
+    public static class User {
+
+        private final int id;
+
+        private final String email;
+
+        public User(int id, String email) {
+            this.id = id;
+            this.email = email;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.logger.controller.benchmark;
+
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Logger with INFO and above enabled which discards every message, so that the aspect builds its messages as it
+ * would in production without the benchmark measuring an appender.
+ *
+ * <p>Unlike {@link NOPLogger#NOP_LOGGER}, which reports every level as disabled and so lets the aspect skip logging
+ * altogether, messages are passed in and their length is kept, so building them cannot be optimized away.
+ */
+class DiscardingLogger extends NOPLogger {
+
+    private long loggedChars;
+
+    @Override
+    public boolean isInfoEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return true;
+    }
+
+    @Override
+    public void info(String msg) {
+        discard(msg);
+    }
+
+    @Override
+    public void warn(String msg, Throwable t) {
+        discard(msg);
+    }
+
+    @Override
+    public void error(String msg, Throwable t) {
+        discard(msg);
+    }
+
+    private void discard(String msg) {
+        loggedChars += msg == null ? 0 : msg.length();
+    }
+}
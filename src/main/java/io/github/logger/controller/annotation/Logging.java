@@ -12,4 +12,16 @@ import java.lang.annotation.Target;
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Logging {
+
+    /**
+     * Fraction of calls, between 0 and 1, whose arguments and returned value are logged. Execution time is logged for
+     * all calls. Negative value means global setting is used.
+     */
+    double payloadSampleRate() default -1;
+
+    /**
+     * Maximum number of calls per second whose arguments and returned value are logged. Takes precedence over
+     * {@link #payloadSampleRate()} if set. Negative value means global setting is used.
+     */
+    int payloadsPerSecond() default -1;
 }
@@ -0,0 +1,16 @@
+package io.github.logger.controller.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Parameter, field and getter level annotation to scrub a value from logs regardless of its name.
+ * Value of an annotated parameter or property is logged as the scrubbed value, and is never read or converted to string
+ * for logging. Has no effect if data scrubbing is disabled.
+ */
+@Target({ElementType.PARAMETER, ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Sensitive {
+}
@@ -3,11 +3,11 @@ package io.github.logger.controller.aspect;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import io.github.logger.controller.bean.MethodDescriptor;
+import io.github.logger.controller.bean.RequestContext;
 import io.github.logger.controller.utils.JsonUtil;
-import org.apache.commons.lang3.time.StopWatch;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.springframework.web.bind.annotation.RequestMapping;
 
 public interface ControllerAspect {
 
@@ -32,10 +32,13 @@ public interface ControllerAspect {
      * </ul>
      *
      * @param proceedingJoinPoint the joinpoint object representing the target method
+     * @param descriptor cached metadata of the target method
+     * @param payloadSampled whether method arguments are to be logged for this call
      */
     void logPreExecutionData(
             @Nonnull ProceedingJoinPoint proceedingJoinPoint,
-            @Nullable RequestMapping methodRequestMapping);
+            @Nonnull MethodDescriptor descriptor,
+            boolean payloadSampled);
 
     /**
      * Logs following data on INFO level about executed method -
@@ -48,22 +51,48 @@ public interface ControllerAspect {
      * <li>JSON representation of object returned by method</li>
      * </ul>
      *
-     * @param proceedingJoinPoint the jointpoint denoting the executed method
-     * @param timer {@link StopWatch} object containing execution time of method
+     * @param descriptor cached metadata of the executed method
+     * @param executionTimeNanos execution time of method in nanoseconds
      * @param result the object returned by executed method
-     * @param returnType class name of object returned by executed method
+     * @param payloadSampled whether returned object is to be logged for this call
      */
     void logPostExecutionData(
-            @Nonnull ProceedingJoinPoint proceedingJoinPoint,
-            @Nonnull StopWatch timer,
+            @Nonnull MethodDescriptor descriptor,
+            long executionTimeNanos,
+            @Nullable Object result,
+            boolean payloadSampled);
+
+    /**
+     * Logs all data about an executed method as a single event on INFO level, used instead of
+     * {@link #logPreExecutionData} and {@link #logPostExecutionData} when consolidated logging is enabled -
+     * <ul>
+     * <li>Method name</li>
+     * <li>Method argument name-value pair</li>
+     * <li>Request details</li>
+     * <li>Execution time of method in milliseconds</li>
+     * <li>JSON representation of object returned by method, or the exception thrown by it</li>
+     * </ul>
+     *
+     * @param descriptor cached metadata of the executed method
+     * @param argValues method argument values, captured before execution
+     * @param requestContext request details, captured before execution
+     * @param executionTimeNanos execution time of method in nanoseconds
+     * @param result the object returned by executed method
+     * @param failure the exception thrown by executed method, if any
+     * @param payloadSampled whether arguments and returned object are to be logged for this call
+     */
+    void logExecutionData(
+            @Nonnull MethodDescriptor descriptor,
+            @Nonnull Object[] argValues,
+            @Nullable RequestContext requestContext,
+            long executionTimeNanos,
             @Nullable Object result,
-            @Nonnull String returnType,
-            @Nullable RequestMapping methodRequestMapping,
-            @Nullable RequestMapping classRequestMapping);
+            @Nullable Throwable failure,
+            boolean payloadSampled);
 
     /**
-     * Logs any exception thrown by method. This aspect is executed <b>AFTER</b> the exception has been thrown, so one
-     * cannot swallow it over here.
+     * Logs any exception thrown by method. This is called from within {@link #log(ProceedingJoinPoint)} <b>AFTER</b>
+     * the exception has been thrown, and the exception is rethrown afterwards, so one cannot swallow it over here.
      */
     void onException(@Nonnull JoinPoint joinPoint, @Nonnull Throwable t);
 
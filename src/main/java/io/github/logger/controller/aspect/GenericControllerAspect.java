@@ -2,26 +2,76 @@ package io.github.logger.controller.aspect;
 
 import io.github.logger.controller.annotation.Logging;
 import io.github.logger.controller.annotation.NoLogging;
+import io.github.logger.controller.annotation.Sensitive;
+import io.github.logger.controller.bean.CapturedBody;
+import io.github.logger.controller.bean.LatencySnapshot;
+import io.github.logger.controller.bean.MethodDescriptor;
+import io.github.logger.controller.bean.RequestContext;
+import io.github.logger.controller.bean.ResultKind;
+import io.github.logger.controller.bean.StreamSummary;
+import io.github.logger.controller.capture.ResponseBodyCapture;
+import io.github.logger.controller.utils.AsyncLogDispatcher;
+import io.github.logger.controller.utils.AsyncResults;
+import io.github.logger.controller.utils.CompletionListener;
 import io.github.logger.controller.utils.JsonUtil;
+import io.github.logger.controller.utils.LatencyHistogram;
+import io.github.logger.controller.utils.MessageBuffers;
+import io.github.logger.controller.utils.PayloadSampler;
+import io.github.logger.controller.utils.ReactiveResults;
 import io.github.logger.controller.utils.RequestUtil;
-import org.apache.commons.lang3.time.StopWatch;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 //@formatter:off
 /**
@@ -38,7 +88,45 @@ import java.lang.annotation.Annotation;
 //@formatter:on
 
 @Aspect
-public class GenericControllerAspect extends LoggerAspect implements ControllerAspect {
+public class GenericControllerAspect extends LoggerAspect
+        implements ControllerAspect, DisposableBean, EnvironmentAware, ApplicationListener<ContextRefreshedEvent> {
+
+    private static final String PAYLOAD_SAMPLING_PROPERTY_PREFIX = "controller-logger.payload-sampling.";
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static final int LATENCY_WINDOW_SLICES = 4;
+
+    /**
+     * Number of consecutive serialization failures after which a type is assumed to never serialize.
+     */
+    private static final int MAX_SERIALIZATION_FAILURES = 3;
+
+    /**
+     * How objects which can't be serialized to JSON are logged.
+     */
+    private enum SerializationFallback {
+        FILE_SIZE,
+        MOCK,
+        UNSERIALIZABLE
+    }
+
+    /**
+     * Latency statistics of a controller method, along with the short name it is displayed by.
+     */
+    private static class EndpointLatency {
+
+        @Nonnull
+        private final String endpointName;
+
+        @Nonnull
+        private final LatencyHistogram histogram;
+
+        private EndpointLatency(@Nonnull String endpointName, @Nonnull LatencyHistogram histogram) {
+            this.endpointName = endpointName;
+            this.histogram = histogram;
+        }
+    }
 
     @Nonnull
     private Logger LOG;
@@ -49,6 +137,53 @@ public class GenericControllerAspect extends LoggerAspect implements ControllerA
     @Nonnull
     private RequestUtil requestUtil;
 
+    @Nullable
+    private AsyncLogDispatcher asyncLogDispatcher;
+
+    @Nullable
+    private Environment environment;
+
+    private long latencyWindowNanos = TimeUnit.MINUTES.toNanos(1);
+
+    private boolean warmUpOnStartup = false;
+
+    @Nonnull
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    /**
+     * Latency statistics by qualified endpoint name, as short names of controllers in different packages may be equal.
+     */
+    @Nonnull
+    private final ConcurrentMap<String, EndpointLatency> latencyHistograms = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private final ConcurrentMap<Method, MethodDescriptor> methodDescriptors = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private final ConcurrentMap<MethodClassKey, MethodDescriptor> inheritedMethodDescriptors =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Types which failed to serialize to JSON, along with how they are logged instead.
+     */
+    @Nonnull
+    private final ConcurrentMap<Class<?>, SerializationFallback> serializationFallbacks = new ConcurrentHashMap<>();
+
+    /**
+     * Number of consecutive serialization failures of types not known to be unserializable yet.
+     */
+    @Nonnull
+    private final ConcurrentMap<Class<?>, AtomicInteger> serializationFailures = new ConcurrentHashMap<>();
+
+    /**
+     * Types a serialization failure has been warned about, so that each is warned about only once.
+     */
+    @Nonnull
+    private final Set<Class<?>> serializationWarnings = ConcurrentHashMap.newKeySet();
+
+    @Nonnull
+    private final MessageBuffers messageBuffers = new MessageBuffers();
+
     public GenericControllerAspect() {
         this(
                 org.slf4j.LoggerFactory.getLogger(String.class),
@@ -64,14 +199,21 @@ public class GenericControllerAspect extends LoggerAspect implements ControllerA
         this.LOG = LOG;
         this.jsonUtil = jsonUtil;
         this.requestUtil = requestUtil;
+        configurePropertyScrubbing();
     }
 
-    @Pointcut("@annotation(io.github.logger.controller.annotation.Logging) " +
-            "|| @target(io.github.logger.controller.annotation.Logging)")
+    /**
+     * Matches methods annotated with {@link Logging}, and methods of classes annotated with {@link Logging} unless the
+     * class is also annotated with {@link NoLogging}. All pointcuts of this aspect are purely static, so whether a
+     * method is logged is decided once when it is woven or proxied, with no runtime check left on each call.
+     */
+    @Pointcut("execution(@io.github.logger.controller.annotation.Logging * *(..)) " +
+            "|| (within(@io.github.logger.controller.annotation.Logging *) " +
+            "&& !within(@io.github.logger.controller.annotation.NoLogging *))")
     public void methodOrClassLoggingEnabledPointcut() {
     }
 
-    @Pointcut("!@annotation(io.github.logger.controller.annotation.NoLogging)")
+    @Pointcut("!execution(@io.github.logger.controller.annotation.NoLogging * *(..))")
     public void methodLoggingNotDisabledPointcut() {
     }
 
@@ -86,33 +228,71 @@ public class GenericControllerAspect extends LoggerAspect implements ControllerA
     @Nullable
     public Object log(@Nonnull ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
         Object result = null;
-        String returnType = null;
-        RequestMapping methodRequestMapping = null;
-        RequestMapping classRequestMapping = null;
+        MethodDescriptor descriptor = null;
+        boolean payloadSampled = true;
+        Object argValues[] = NO_ARGS;
+        RequestContext requestContext = null;
+        // checked once per call, so a call is either logged entirely or not at all. When disabled, nothing is
+        // serialized, no request details are extracted, no message is built and no sampling permit is used up.
+        boolean logEnabled = LOG.isInfoEnabled();
 
         try {
-            MethodSignature methodSignature = (MethodSignature)proceedingJoinPoint.getSignature();
-            methodRequestMapping = methodSignature.getMethod().getAnnotation(RequestMapping.class);
-            classRequestMapping = proceedingJoinPoint.getTarget().getClass().getAnnotation(RequestMapping.class);
+            descriptor = getMethodDescriptor(proceedingJoinPoint);
 
-            // this is required to distinguish between a returned value of null and no return value, as in case of
-            // void return type.
-            returnType = methodSignature.getReturnType().getName();
+            if (logEnabled) {
+                payloadSampled = descriptor.getPayloadSampler().sample();
 
-            logPreExecutionData(proceedingJoinPoint, methodRequestMapping);
+                if (isSingleEventLogging()) {
+                    // everything is logged after execution, in a single log event.
+                    argValues = payloadSampled ? proceedingJoinPoint.getArgs() : NO_ARGS;
+                    requestContext = requestUtil.getRequestContext();
+                } else {
+                    logPreExecutionData(proceedingJoinPoint, descriptor, payloadSampled);
+                }
+            }
         } catch (Exception e) {
             LOG.error("Exception occurred in pre-proceed logic", e);
         }
 
-        StopWatch timer = new StopWatch();
+        Throwable failure = null;
+        boolean deferred = false;
+        long startNanos = System.nanoTime();
         try {
-            timer.start();
             result = proceedingJoinPoint.proceed();
+
+            if (descriptor != null && result != null && descriptor.getResultKind().isDeferred()) {
+                Object observedResult = observeDeferredResult(
+                        descriptor, argValues, requestContext, startNanos, result, payloadSampled, logEnabled
+                );
+                if (observedResult != null) {
+                    // the call is logged once the result completes, not now.
+                    result = observedResult;
+                    deferred = true;
+                }
+            }
+        } catch (Throwable t) {
+            failure = t;
+            // exception is logged from within this advice rather than a separate @AfterThrowing advice, so every call
+            // goes through a single advice matched by a single pointcut.
+            if (logEnabled) {
+                onException(descriptor, proceedingJoinPoint, t);
+            }
+            throw t;
         } finally {
-            timer.stop();
-            if (returnType != null) {
-                logPostExecutionData(
-                        proceedingJoinPoint, timer, result, returnType, methodRequestMapping, classRequestMapping
+            long executionTimeNanos = System.nanoTime() - startNanos;
+            boolean captured = descriptor != null && !deferred && failure == null && logEnabled && payloadSampled
+                    && observeResponseBody(descriptor, argValues, requestContext, executionTimeNanos, result);
+
+            if (descriptor != null && !deferred && !captured) {
+                logCompletion(
+                        descriptor,
+                        argValues,
+                        requestContext,
+                        executionTimeNanos,
+                        result,
+                        failure,
+                        payloadSampled,
+                        logEnabled
                 );
             }
         }
@@ -120,207 +300,1300 @@ public class GenericControllerAspect extends LoggerAspect implements ControllerA
         return result;
     }
 
+    /**
+     * Records latency of a completed call and logs everything logged after execution.
+     */
+    private void logCompletion(
+            @Nonnull MethodDescriptor descriptor,
+            @Nonnull Object[] argValues,
+            @Nullable RequestContext requestContext,
+            long executionTimeNanos,
+            @Nullable Object result,
+            @Nullable Throwable failure,
+            boolean payloadSampled,
+            boolean logEnabled) {
+        descriptor.getLatencyHistogram().record(executionTimeNanos, failure != null);
+
+        if (!logEnabled) {
+            return;
+        }
+
+        if (isSingleEventLogging()) {
+            logExecutionData(
+                    descriptor, argValues, requestContext, executionTimeNanos, result, failure, payloadSampled
+            );
+        } else {
+            logPostExecutionData(descriptor, executionTimeNanos, result, payloadSampled);
+        }
+    }
+
+    /**
+     * Defers logging of a call until its result has been written as response body, so that the body is logged as
+     * written instead of serializing the result once more. Execution time is still the time the method took.
+     *
+     * @return false if the response body is not captured and the call must be logged right away
+     */
+    private boolean observeResponseBody(
+            @Nonnull MethodDescriptor descriptor,
+            @Nonnull Object[] argValues,
+            @Nullable RequestContext requestContext,
+            long executionTimeNanos,
+            @Nullable Object result) {
+        if (!descriptor.isResultCaptured() || result == null || result instanceof HttpEntity) {
+            return false;
+        }
+
+        CompletionListener listener = (capturedBody, failure) -> {
+            try {
+                // without a captured body, such as when the result wasn't written by a JSON converter, it is
+                // serialized as usual.
+                logCompletion(
+                        descriptor,
+                        argValues,
+                        requestContext,
+                        executionTimeNanos,
+                        capturedBody != null ? capturedBody : result,
+                        null,
+                        true,
+                        true
+                );
+            } catch (Exception e) {
+                LOG.error("Exception occurred in response body logging", e);
+            }
+        };
+
+        try {
+            return ResponseBodyCapture.observe(listener);
+        } catch (Exception e) {
+            LOG.error("Exception occurred in response body logging", e);
+            return false;
+        }
+    }
+
+    /**
+     * Wraps a result which completes after the method returned, such as a {@code Mono} or a {@code CompletableFuture},
+     * so that the call is logged on its actual completion. Nothing blocks waiting for it.
+     *
+     * @return the wrapped result, or null if it could not be wrapped and the call must be logged right away
+     */
+    @Nullable
+    private Object observeDeferredResult(
+            @Nonnull MethodDescriptor descriptor,
+            @Nonnull Object[] argValues,
+            @Nullable RequestContext requestContext,
+            long startNanos,
+            @Nonnull Object result,
+            boolean payloadSampled,
+            boolean logEnabled) {
+        CompletionListener listener = (completedResult, failure) -> {
+            try {
+                if (failure != null && logEnabled && !isSingleEventLogging()) {
+                    logException(descriptor.getMethodName(), failure);
+                }
+                logCompletion(
+                        descriptor,
+                        argValues,
+                        requestContext,
+                        System.nanoTime() - startNanos,
+                        completedResult,
+                        failure,
+                        payloadSampled,
+                        logEnabled
+                );
+            } catch (Exception e) {
+                LOG.error("Exception occurred in deferred result logging", e);
+            }
+        };
+
+        try {
+            ResultKind resultKind = descriptor.getResultKind();
+            return resultKind.isReactive()
+                    ? ReactiveResults.decorate(result, resultKind, startNanos, listener)
+                    : AsyncResults.observe(result, resultKind, startNanos, listener);
+        } catch (Exception e) {
+            LOG.error("Exception occurred in deferred result logging", e);
+            return null;
+        }
+    }
+
     public void logPreExecutionData(
             @Nonnull ProceedingJoinPoint proceedingJoinPoint,
-            @Nullable RequestMapping methodRequestMapping) {
-        MethodSignature methodSignature = (MethodSignature)proceedingJoinPoint.getSignature();
+            @Nonnull MethodDescriptor descriptor,
+            boolean payloadSampled) {
+        // arguments are not logged at all for calls not sampled for payload logging.
+        Object argValues[] = payloadSampled ? proceedingJoinPoint.getArgs() : NO_ARGS;
+        // request context lives in thread locals, so it needs to be captured on request thread even in async mode.
+        RequestContext requestContext = requestUtil.getRequestContext();
 
-        String methodName = methodSignature.getName() + "()";
-        Object argValues[] = proceedingJoinPoint.getArgs();
-        String argNames[] = methodSignature.getParameterNames();
-        String requestContext = requestUtil.getRequestContext().toString();
-        Annotation annotations[][] = methodSignature.getMethod().getParameterAnnotations();
+        if (asyncLogDispatcher == null) {
+            LOG.info(buildPreExecutionMessage(descriptor, argValues, requestContext));
+        } else {
+            Runnable logEvent = asyncLogEvent(
+                    () -> LOG.info(buildPreExecutionMessage(descriptor, argValues, requestContext))
+            );
+            if (payloadSampled) {
+                asyncLogDispatcher.submitPayload(logEvent);
+            } else {
+                asyncLogDispatcher.submit(logEvent);
+            }
+        }
+    }
 
-        StringBuilder preMessage = new StringBuilder().append(methodName);
+    public void logPostExecutionData(
+            @Nonnull MethodDescriptor descriptor,
+            long executionTimeNanos,
+            @Nullable Object result,
+            boolean payloadSampled) {
+        long executionTime = TimeUnit.NANOSECONDS.toMillis(executionTimeNanos);
+
+        if (asyncLogDispatcher == null) {
+            LOG.info(buildExecutionTimeMessage(descriptor, executionTime));
+            if (payloadSampled) {
+                LOG.info(buildPostExecutionMessage(descriptor, result));
+            }
+        } else {
+            asyncLogDispatcher.submit(asyncLogEvent(
+                    () -> LOG.info(buildExecutionTimeMessage(descriptor, executionTime))
+            ));
+            if (payloadSampled) {
+                asyncLogDispatcher.submitPayload(asyncLogEvent(
+                        () -> LOG.info(buildPostExecutionMessage(descriptor, result))
+                ));
+            }
+        }
+    }
+
+    public void logExecutionData(
+            @Nonnull MethodDescriptor descriptor,
+            @Nonnull Object[] argValues,
+            @Nullable RequestContext requestContext,
+            long executionTimeNanos,
+            @Nullable Object result,
+            @Nullable Throwable failure,
+            boolean payloadSampled) {
+        if (asyncLogDispatcher == null) {
+            LOG.info(buildExecutionMessage(
+                    descriptor, argValues, requestContext, executionTimeNanos, result, failure, payloadSampled
+            ));
+            return;
+        }
+
+        boolean payloadSubmitted = payloadSampled && asyncLogDispatcher.submitPayload(asyncLogEvent(
+                () -> LOG.info(buildExecutionMessage(
+                        descriptor, argValues, requestContext, executionTimeNanos, result, failure, true
+                ))
+        ));
+
+        if (!payloadSubmitted) {
+            // the event is still logged when its payload gets dropped, just without arguments and returned value.
+            asyncLogDispatcher.submit(asyncLogEvent(
+                    () -> LOG.info(buildExecutionMessage(
+                            descriptor, NO_ARGS, requestContext, executionTimeNanos, result, failure, false
+                    ))
+            ));
+        }
+    }
+
+    private boolean isSingleEventLogging() {
+        return consolidatedLogging || structuredLogging;
+    }
+
+    @Nonnull
+    private String buildPreExecutionMessage(
+            @Nonnull MethodDescriptor descriptor,
+            @Nonnull Object[] argValues,
+            @Nonnull RequestContext requestContext) {
+        StringBuilder preMessage = messageBuffers.acquire(descriptor.getMessageSizeHint());
 
         if (argValues.length > 0) {
-            logFunctionArguments(argNames, argValues, preMessage, annotations, methodRequestMapping);
+            logFunctionArguments(descriptor, argValues, preMessage.append(descriptor.getArgumentsPrefix()));
+        } else {
+            preMessage.append(descriptor.getMethodName());
         }
 
-        preMessage.append(" called via ").append(requestContext);
-        LOG.info(preMessage.toString());
+        requestContext.appendTo(preMessage.append(" called via "));
+        return releaseMessage(descriptor, preMessage);
     }
 
-    public void logPostExecutionData(
-            @Nonnull ProceedingJoinPoint proceedingJoinPoint,
-            @Nonnull StopWatch timer,
+    @Nonnull
+    private String buildExecutionTimeMessage(@Nonnull MethodDescriptor descriptor, long executionTime) {
+        StringBuilder message = messageBuffers.acquire(descriptor.getMessageSizeHint());
+        message.append(descriptor.getExecutionTimePrefix()).append(executionTime).append(" ms] to complete");
+        return messageBuffers.release(message);
+    }
+
+    @Nonnull
+    private String buildPostExecutionMessage(@Nonnull MethodDescriptor descriptor, @Nullable Object result) {
+        StringBuilder postMessage = messageBuffers.acquire(descriptor.getMessageSizeHint());
+        appendResult(descriptor, result, postMessage.append(descriptor.getReturnedPrefix()));
+        postMessage.append("]");
+        return releaseMessage(descriptor, postMessage);
+    }
+
+    /**
+     * Hands the message buffer back for reuse, recording its length to size the next message of the method.
+     */
+    @Nonnull
+    private String releaseMessage(@Nonnull MethodDescriptor descriptor, @Nonnull StringBuilder message) {
+        descriptor.recordMessageLength(message.length());
+        return messageBuffers.release(message);
+    }
+
+    @Nonnull
+    private String buildExecutionMessage(
+            @Nonnull MethodDescriptor descriptor,
+            @Nonnull Object[] argValues,
+            @Nullable RequestContext requestContext,
+            long executionTimeNanos,
             @Nullable Object result,
-            @Nonnull String returnType,
-            @Nullable RequestMapping methodRequestMapping,
-            @Nullable RequestMapping classRequestMapping) {
-        MethodSignature methodSignature = (MethodSignature)proceedingJoinPoint.getSignature();
-        String methodName = methodSignature.getName() + "()";
+            @Nullable Throwable failure,
+            boolean payloadSampled) {
+        if (structuredLogging) {
+            return buildStructuredMessage(
+                    descriptor, argValues, requestContext, executionTimeNanos, result, failure, payloadSampled
+            );
+        }
 
-        LOG.info(methodName + " took [" + timer.getTime() + " ms] to complete");
+        StringBuilder message = messageBuffers.acquire(descriptor.getMessageSizeHint());
 
-        boolean needsSerialization = false;
+        if (payloadSampled && argValues.length > 0) {
+            logFunctionArguments(descriptor, argValues, message.append(descriptor.getArgumentsPrefix()));
+        } else {
+            message.append(descriptor.getMethodName());
+        }
 
-        String produces[] = methodRequestMapping != null ? methodRequestMapping.produces() : new String[0];
-        for (String produce : produces) {
-            if (produce.equals(MediaType.APPLICATION_JSON_VALUE)) {
-                needsSerialization = true;
-                break;
+        if (requestContext != null) {
+            requestContext.appendTo(message.append(" called via "));
+        }
+
+        message.append(" took [").append(TimeUnit.NANOSECONDS.toMillis(executionTimeNanos)).append(" ms]");
+
+        if (failure != null) {
+            message.append(" and threw exception: [").append(failure).append("]");
+        } else if (payloadSampled) {
+            message.append(" and returned: [");
+            appendResult(descriptor, result, message);
+            message.append("]");
+        }
+
+        return releaseMessage(descriptor, message);
+    }
+
+    /**
+     * Builds a single line JSON object describing a call. Serialized arguments and returned value are embedded as JSON
+     * values, everything else is written as JSON strings.
+     */
+    @Nonnull
+    private String buildStructuredMessage(
+            @Nonnull MethodDescriptor descriptor,
+            @Nonnull Object[] argValues,
+            @Nullable RequestContext requestContext,
+            long executionTimeNanos,
+            @Nullable Object result,
+            @Nullable Throwable failure,
+            boolean payloadSampled) {
+        StringBuilder message = messageBuffers.acquire(descriptor.getMessageSizeHint());
+        message.append(descriptor.getStructuredPrefix());
+
+        if (requestContext != null) {
+            for (Map.Entry<String, String> entry : requestContext.getContext().entrySet()) {
+                appendStructuredField(entry.getKey(), entry.getValue(), message);
+            }
+        }
+
+        message.append(",\"durationNanos\":").append(executionTimeNanos);
+        appendStructuredField("status", failure == null ? "success" : "error", message);
+
+        // status and size of a response entity are cheap, so they are logged even if its payload is not.
+        HttpEntity<?> entity = failure == null && result instanceof HttpEntity ? (HttpEntity<?>)result : null;
+        if (entity != null) {
+            appendStructuredEntityFields(entity, payloadSampled, message);
+        }
+        Object resultValue = entity != null ? entity.getBody() : result;
+
+        if (payloadSampled && argValues.length > 0) {
+            message.append(",\"args\":{");
+            for (int i = 0, length = descriptor.getArgCount(); i < length; ++i) {
+                boolean needsSerialization = !descriptor.isArgScrubbed(i) && (descriptor.isArgSerialized(i)
+                        || argValues[i] instanceof ByteArrayResource
+                        || argValues[i] instanceof MultipartFile);
+
+                message.append(descriptor.getStructuredArgLabel(i));
+                if (needsSerialization) {
+                    String argClassName = argValues[i] == null ? "NULL" : argValues[i].getClass().getName();
+                    appendStructuredValue(argValues[i], argClassName, message);
+                } else {
+                    Object argValue = getScrubbedValue(descriptor, i, argValues[i]);
+                    if (argValue == null) {
+                        message.append("null");
+                    } else {
+                        appendRenderedValue(argValue, message);
+                    }
+                }
             }
+            message.append('}');
         }
 
-        if (!needsSerialization) {
-            produces = classRequestMapping != null ? classRequestMapping.produces() : new String[0];
-            for (String produce : produces) {
-                if (produce.equals(MediaType.APPLICATION_JSON_VALUE)) {
-                    needsSerialization = true;
-                    break;
+        if (failure != null) {
+            appendStructuredField("exception", failure.toString(), message);
+        } else if (payloadSampled && resultValue instanceof StreamSummary) {
+            appendStreamSummary((StreamSummary)resultValue, message);
+        } else if (payloadSampled && !descriptor.isVoidReturn()) {
+            message.append(",\"result\":");
+            if (resultValue instanceof CapturedBody) {
+                int start = message.length();
+                if (!appendCapturedBody((CapturedBody)resultValue, message)) {
+                    quoteAppended(message, start);
                 }
+            } else if (descriptor.isProducesJson()) {
+                String resultClassName = resultValue == null ? "null" : resultValue.getClass().getName();
+                appendStructuredValue(resultValue, resultClassName, message);
+            } else if (resultValue == null) {
+                message.append("null");
+            } else {
+                appendRenderedValue(resultValue, message);
             }
         }
 
-        StringBuilder postMessage = new StringBuilder().append(methodName).append(" returned: [");
+        return releaseMessage(descriptor, message.append('}'));
+    }
 
-        if (needsSerialization) {
+    private void appendStructuredEntityFields(
+            @Nonnull HttpEntity<?> entity,
+            boolean payloadSampled,
+            @Nonnull StringBuilder message) {
+        if (entity instanceof ResponseEntity) {
+            message.append(",\"httpStatus\":").append(((ResponseEntity<?>)entity).getStatusCodeValue());
+        }
+
+        long bodySize = estimateBodySize(entity);
+        if (bodySize >= 0) {
+            message.append(",\"bodySize\":").append(bodySize);
+        }
+
+        if (!payloadSampled) {
+            return;
+        }
+
+        HttpHeaders headers = entity.getHeaders();
+        int start = message.length();
+        for (String headerName : loggedResponseHeaders) {
+            List<String> values = headers.get(headerName);
+            if (values != null && !values.isEmpty()) {
+                message.append(message.length() == start ? ",\"headers\":{" : ",");
+                appendJsonString(headerName, message);
+                appendJsonString(joinHeaderValues(values), message.append(':'));
+            }
+        }
+        if (message.length() > start) {
+            message.append('}');
+        }
+    }
+
+    private void appendStreamSummary(@Nonnull StreamSummary summary, @Nonnull StringBuilder message) {
+        // unknown counts are omitted
+        message.append(",\"stream\":{");
+        if (summary.getElementCount() >= 0) {
+            message.append("\"elements\":").append(summary.getElementCount()).append(',');
+        }
+        if (summary.getByteCount() >= 0) {
+            message.append("\"bytes\":").append(summary.getByteCount()).append(',');
+        }
+        if (summary.getTimeToFirstElementNanos() >= 0) {
+            message.append("\"timeToFirstElementNanos\":").append(summary.getTimeToFirstElementNanos()).append(',');
+        }
+        message.append("\"cancelled\":").append(summary.isCancelled()).append('}');
+    }
+
+    /**
+     * Appends JSON of given object, or a JSON string with its fallback representation as logged by
+     * {@link #serialize(Object, String, StringBuilder)} if it can't be fully serialized.
+     */
+    private void appendStructuredValue(
+            @Nullable Object object,
+            @Nonnull String objClassName,
+            @Nonnull StringBuilder message) {
+        int start = message.length();
+        if (getSerializationFallback(object) != null) {
+            serialize(object, objClassName, message);
+        } else {
+            try {
+                if (jsonUtil.toJson(object, message, maxPayloadChars, maxPayloadBytes)) {
+                    return;
+                }
+            } catch (Exception e) {
+                message.setLength(start);
+                serialize(object, objClassName, message);
+            }
+        }
+        quoteAppended(message, start);
+    }
+
+    private void appendStructuredField(@Nonnull String name, @Nonnull String value, @Nonnull StringBuilder message) {
+        message.append(',');
+        appendJsonString(name, message);
+        appendJsonString(value, message.append(':'));
+    }
+
+    private void appendJsonString(@Nonnull String value, @Nonnull StringBuilder message) {
+        message.append('"');
+        JsonStringEncoder.getInstance().quoteAsString(value, message);
+        message.append('"');
+    }
+
+    private void appendRenderedValue(@Nonnull Object value, @Nonnull StringBuilder message) {
+        int start = message.length();
+        valueRenderer.render(value, message);
+        quoteAppended(message, start);
+    }
+
+    /**
+     * Turns text appended to the message from given index on into a JSON string. Text without characters that need
+     * escaping, which is the common case, is quoted in place.
+     */
+    private void quoteAppended(@Nonnull StringBuilder message, int start) {
+        for (int i = start, length = message.length(); i < length; ++i) {
+            char c = message.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                String appended = message.substring(start);
+                message.setLength(start);
+                appendJsonString(appended, message);
+                return;
+            }
+        }
+        message.insert(start, '"').append('"');
+    }
+
+    private void appendResult(
+            @Nonnull MethodDescriptor descriptor,
+            @Nullable Object result,
+            @Nonnull StringBuilder message) {
+        if (result instanceof StreamSummary) {
+            // streamed content is never buffered, only counted.
+            ((StreamSummary)result).appendTo(message);
+        } else if (result instanceof CapturedBody) {
+            appendCapturedBody((CapturedBody)result, message);
+        } else if (result instanceof HttpEntity) {
+            appendHttpEntity(descriptor, (HttpEntity<?>)result, message);
+        } else if (descriptor.isProducesJson()) {
             String resultClassName = result == null ? "null" : result.getClass().getName();
-            resultClassName = returnType.equals("java.lang.Void") ? returnType : resultClassName;
+            resultClassName = descriptor.isVoidReturn() ? "java.lang.Void" : resultClassName;
 
-            // TODO maybe we can try using toString() when serialization fails?
-            serialize(result, resultClassName, postMessage);
+            // toString() is deliberately not used when serialization fails, as it would bypass data scrubbing.
+            serialize(result, resultClassName, message);
         } else {
-            postMessage.append(result);
+            valueRenderer.render(result, message);
         }
-        postMessage.append("]");
-        LOG.info(postMessage.toString());
     }
 
-    @AfterThrowing(
-            pointcut = "allPublicControllerMethodsPointcut() && "
-                    + "methodLoggingNotDisabledPointcut() && "
-                    + "methodOrClassLoggingEnabledPointcut()",
-            throwing = "t")
+    /**
+     * Appends a captured JSON response body, scrubbed and capped like a serialized result.
+     *
+     * @return false if what was appended is not valid JSON, as when the body was truncated
+     */
+    private boolean appendCapturedBody(@Nonnull CapturedBody body, @Nonnull StringBuilder message) {
+        int start = message.length();
+        try {
+            boolean complete = jsonUtil.copyJson(
+                    body.getBytes(), body.getLength(), !body.isTruncated(), message, maxPayloadChars, maxPayloadBytes
+            );
+            if (complete && body.isTruncated()) {
+                message.append("...[truncated, ").append(body.getTotalBytes()).append(" bytes]");
+                return false;
+            }
+            return complete;
+        } catch (Exception e) {
+            // the body is not logged as is, as that would bypass data scrubbing.
+            message.setLength(start);
+            message.append("unparsable response body of size [").append(body.getTotalBytes()).append(" B]");
+            return false;
+        }
+    }
+
+    /**
+     * Logs status, allowed headers and body of a response entity. The body is logged the same way as a plain result,
+     * while the entity itself is never rendered, as its {@code toString()} would include all headers.
+     */
+    private void appendHttpEntity(
+            @Nonnull MethodDescriptor descriptor,
+            @Nonnull HttpEntity<?> entity,
+            @Nonnull StringBuilder message) {
+        if (entity instanceof ResponseEntity) {
+            message.append("status [").append(((ResponseEntity<?>)entity).getStatusCodeValue()).append("], ");
+        }
+
+        HttpHeaders headers = entity.getHeaders();
+        int start = message.length();
+        for (String headerName : loggedResponseHeaders) {
+            List<String> values = headers.get(headerName);
+            if (values != null && !values.isEmpty()) {
+                message.append(message.length() == start ? "headers [" : ", ")
+                        .append(headerName).append(": ").append(joinHeaderValues(values));
+            }
+        }
+        if (message.length() > start) {
+            message.append("], ");
+        }
+
+        long bodySize = estimateBodySize(entity);
+        if (bodySize >= 0) {
+            message.append("body size [").append(bodySize).append(" B], ");
+        }
+
+        message.append("body [");
+        appendResult(descriptor, entity.getBody(), message);
+        message.append(']');
+    }
+
+    @Nonnull
+    private static String joinHeaderValues(@Nonnull List<String> values) {
+        return values.size() == 1 ? values.get(0) : String.join(", ", values);
+    }
+
+    /**
+     * Estimates size of the response body of given entity without serializing it, from its {@code Content-Length}
+     * header or from the size of a binary or text body.
+     *
+     * @return estimated size in bytes, or -1 if it is unknown
+     */
+    private static long estimateBodySize(@Nonnull HttpEntity<?> entity) {
+        long contentLength = entity.getHeaders().getContentLength();
+        Object body = entity.getBody();
+
+        if (contentLength >= 0) {
+            return contentLength;
+        } else if (body == null) {
+            return 0;
+        } else if (body instanceof byte[]) {
+            return ((byte[])body).length;
+        } else if (body instanceof ByteBuffer) {
+            return ((ByteBuffer)body).remaining();
+        } else if (body instanceof ByteArrayResource) {
+            return ((ByteArrayResource)body).contentLength();
+        } else if (body instanceof CharSequence) {
+            // exact for ASCII text
+            return ((CharSequence)body).length();
+        }
+        return -1;
+    }
+
+    /**
+     * Wraps a log event executed by {@link AsyncLogDispatcher} so that its failures are reported the same way as
+     * failures of synchronous logging.
+     */
+    @Nonnull
+    private Runnable asyncLogEvent(@Nonnull Runnable logEvent) {
+        return () -> {
+            try {
+                logEvent.run();
+            } catch (Exception e) {
+                LOG.error("Exception occurred in asynchronous logging", e);
+            }
+        };
+    }
+
     public void onException(@Nonnull JoinPoint joinPoint, @Nonnull Throwable t) {
-        String methodName = joinPoint.getSignature().getName() + "()";
-        LOG.info(methodName + " threw exception: [" + t + "]");
+        onException(null, joinPoint, t);
     }
 
-    public void serialize(@Nullable Object object, @Nonnull String objClassName, @Nonnull StringBuilder logMessage) {
-        boolean serializedSuccessfully = false;
-        Exception exception = null;
+    private void onException(
+            @Nullable MethodDescriptor descriptor,
+            @Nonnull JoinPoint joinPoint,
+            @Nonnull Throwable t) {
+        if (isSingleEventLogging()) {
+            // exception is part of the single log event of the call.
+            return;
+        }
+
+        try {
+            // the name is built from the signature only if the call failed before its descriptor was resolved.
+            String methodName = descriptor != null
+                    ? descriptor.getMethodName()
+                    : joinPoint.getSignature().getName() + "()";
+            logException(methodName, t);
+        } catch (Exception e) {
+            // the original exception must reach the caller even if logging it fails.
+            LOG.error("Exception occurred in exception logging", e);
+        }
+    }
+
+    private void logException(@Nonnull String methodName, @Nonnull Throwable t) {
+        if (asyncLogDispatcher == null) {
+            LOG.info(methodName + " threw exception: [" + t + "]");
+        } else {
+            asyncLogDispatcher.submit(asyncLogEvent(
+                    () -> LOG.info(methodName + " threw exception: [" + t + "]")
+            ));
+        }
+    }
 
+    public void serialize(@Nullable Object object, @Nonnull String objClassName, @Nonnull StringBuilder logMessage) {
         // this is to distinguish between methods returning null value and methods returning void.
         // Object arg is null in both cases but objClassName is not.
         if (objClassName.equals("java.lang.Void")) {
             logMessage.append("void");
-            serializedSuccessfully = true;
+            return;
         }
 
-        // try serializing assuming a perfectly serializable object.
-        if (!serializedSuccessfully) {
+        SerializationFallback fallback = getSerializationFallback(object);
+
+        // try serializing assuming a perfectly serializable object, unless objects of same type failed before.
+        if (fallback == null) {
             try {
-                logMessage.append(jsonUtil.toJson(object));
-                serializedSuccessfully = true;
+                jsonUtil.toJson(object, logMessage, maxPayloadChars, maxPayloadBytes);
+                if (object != null && !serializationFailures.isEmpty()) {
+                    serializationFailures.remove(object.getClass());
+                }
+                return;
             } catch (Exception e) {
-                exception = e;
+                fallback = resolveSerializationFallback(object, objClassName);
+                onSerializationFailure(object, fallback, e);
+
+                // failures are warned about once per type, however often the type keeps failing.
+                if (fallback == SerializationFallback.UNSERIALIZABLE
+                        && (object == null || serializationWarnings.add(object.getClass()))) {
+                    LOG.warn("Unable to serialize object of type [" + objClassName + "] for logging", e);
+                }
             }
         }
 
-        // try getting file size assuming object is a file type object
-        if (!serializedSuccessfully) {
-            long fileSize = -1;
+        switch (fallback) {
+            case FILE_SIZE:
+                long fileSize = object instanceof ByteArrayResource
+                        ? ((ByteArrayResource)object).contentLength()
+                        : ((MultipartFile)object).getSize();
+                logMessage.append("file of size:[").append(fileSize).append(" B]");
+                break;
+            case MOCK:
+                logMessage.append("Mock Object");
+                break;
+            default:
+                logMessage.append("unserializable object of type [").append(objClassName).append("]");
+                break;
+        }
+    }
 
-            if (object instanceof ByteArrayResource) {
-                fileSize = ((ByteArrayResource)object).contentLength();
-            } else if (object instanceof MultipartFile) {
-                fileSize = ((MultipartFile)object).getSize();
-            }
+    /**
+     * Caches given fallback for the type of given object once the type is known to never serialize, so that objects of
+     * the type don't cost a thrown exception on each call. That is the case right away for files, mocks and types
+     * Jackson reports as unserializable, and after repeated consecutive failures for any other type but containers,
+     * whose failures depend on their elements.
+     */
+    private void onSerializationFailure(
+            @Nullable Object object,
+            @Nonnull SerializationFallback fallback,
+            @Nonnull Exception failure) {
+        if (object == null) {
+            return;
+        }
 
-            if (fileSize != -1) {
-                logMessage.append("file of size:[").append(fileSize).append(" B]");
-                serializedSuccessfully = true;
+        Class<?> type = object.getClass();
+        if (fallback != SerializationFallback.UNSERIALIZABLE || isUnserializableType(object, failure)) {
+            serializationFallbacks.putIfAbsent(type, fallback);
+        } else if (!isContainerType(type)
+                && serializationFailures.computeIfAbsent(type, key -> new AtomicInteger()).incrementAndGet()
+                        >= MAX_SERIALIZATION_FAILURES) {
+            serializationFallbacks.putIfAbsent(type, fallback);
+            serializationFailures.remove(type);
+        }
+    }
+
+    /**
+     * Whether given failure shows that the type of given object itself cannot be serialized, as opposed to some value
+     * within it or a transient failure.
+     */
+    private static boolean isUnserializableType(@Nullable Object object, @Nonnull Throwable failure) {
+        if (object == null || isContainerType(object.getClass())) {
+            return false;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InvalidDefinitionException) {
+                JavaType type = ((InvalidDefinitionException)cause).getType();
+                return type != null && type.getRawClass() == object.getClass();
             }
         }
+        return false;
+    }
+
+    private static boolean isContainerType(@Nonnull Class<?> type) {
+        return type.isArray()
+                || Collection.class.isAssignableFrom(type)
+                || Map.class.isAssignableFrom(type)
+                || Optional.class == type;
+    }
+
+    /**
+     * @return how objects of same type as given object are logged, or null if they are serialized to JSON
+     */
+    @Nullable
+    private SerializationFallback getSerializationFallback(@Nullable Object object) {
+        return object == null || serializationFallbacks.isEmpty()
+                ? null
+                : serializationFallbacks.get(object.getClass());
+    }
+
+    @Nonnull
+    private SerializationFallback resolveSerializationFallback(@Nullable Object object, @Nonnull String objClassName) {
+        // try getting file size assuming object is a file type object
+        if (object instanceof ByteArrayResource || object instanceof MultipartFile) {
+            return SerializationFallback.FILE_SIZE;
+        }
 
         // detect if its a mock object.
-        if (!serializedSuccessfully && objClassName.toLowerCase().contains("mock")) {
-            logMessage.append("Mock Object");
-            serializedSuccessfully = true;
+        if (objClassName.toLowerCase().contains("mock")) {
+            return SerializationFallback.MOCK;
         }
 
-        if (!serializedSuccessfully) {
-            LOG.warn("Unable to serialize object of type [" + objClassName + "] for logging", exception);
+        return SerializationFallback.UNSERIALIZABLE;
+    }
+
+    /**
+     * Returns cached {@link MethodDescriptor} of the method represented by given joinpoint, resolving and caching it on
+     * first invocation.
+     *
+     * @param proceedingJoinPoint the joinpoint object representing the target method
+     * @return descriptor of the target method
+     */
+    @Nonnull
+    protected MethodDescriptor getMethodDescriptor(@Nonnull ProceedingJoinPoint proceedingJoinPoint) {
+        MethodSignature methodSignature = (MethodSignature)proceedingJoinPoint.getSignature();
+        Method method = methodSignature.getMethod();
+        Class<?> targetClass = proceedingJoinPoint.getTarget().getClass();
+
+        MethodDescriptor descriptor = methodDescriptors.get(method);
+        if (descriptor != null && descriptor.getTargetClass() == targetClass) {
+            return descriptor;
+        }
+
+        return cacheMethodDescriptor(
+                method,
+                targetClass,
+                descriptor,
+                () -> createMethodDescriptor(methodSignature, targetClass)
+        );
+    }
+
+    @Nonnull
+    private MethodDescriptor cacheMethodDescriptor(
+            @Nonnull Method method,
+            @Nonnull Class<?> targetClass,
+            @Nullable MethodDescriptor descriptor,
+            @Nonnull Supplier<MethodDescriptor> descriptorFactory) {
+        if (descriptor == null) {
+            descriptor = descriptorFactory.get();
+            MethodDescriptor existingDescriptor = methodDescriptors.putIfAbsent(method, descriptor);
+            if (existingDescriptor == null || existingDescriptor.getTargetClass() == targetClass) {
+                return existingDescriptor == null ? descriptor : existingDescriptor;
+            }
         }
+
+        // same method invoked on different controller classes, as happens with methods inherited from a common base
+        // controller. Class level request mapping may differ between them so each gets its own descriptor.
+        return inheritedMethodDescriptors.computeIfAbsent(
+                new MethodClassKey(method, targetClass),
+                key -> descriptorFactory.get()
+        );
     }
 
     /**
-     * Generated name-value pair of method's formal arguments. Appends the generated string in provided StringBuilder
+     * Resolves all invocation independent logging metadata of a method.
      *
-     * @param argNames String[] containing method's formal argument names Order of names must correspond to order on arg
-     *            values in argValues.
-     * @param argValues String[] containing method's formal argument values. Order of values must correspond to order on
-     *            arg names in argNames.
-     * @param stringBuilder the StringBuilder to append argument data to.
+     * @param methodSignature signature of the target method
+     * @param targetClass class of the controller the method is invoked on
+     * @return descriptor of the target method
      */
-    private void logFunctionArguments(
+    @Nonnull
+    protected MethodDescriptor createMethodDescriptor(
+            @Nonnull MethodSignature methodSignature,
+            @Nonnull Class<?> targetClass) {
+        return createMethodDescriptor(
+                methodSignature.getMethod(),
+                methodSignature.getName(),
+                methodSignature.getParameterNames(),
+                methodSignature.getReturnType(),
+                targetClass
+        );
+    }
+
+    /**
+     * Resolves all invocation independent logging metadata of a method.
+     *
+     * @param method the target method
+     * @param methodName name of the target method
+     * @param argNames names of the formal parameters of the target method
+     * @param returnType return type of the target method
+     * @param targetClass class of the controller the method is invoked on
+     * @return descriptor of the target method
+     */
+    @Nonnull
+    protected MethodDescriptor createMethodDescriptor(
+            @Nonnull Method method,
+            @Nonnull String methodName,
             @Nonnull String[] argNames,
-            @Nonnull Object[] argValues,
-            @Nonnull StringBuilder stringBuilder,
-            @Nonnull Annotation annotations[][],
-            @Nullable RequestMapping methodRequestMapping) {
-        boolean someArgNeedsSerialization = false;
-
-        if (methodRequestMapping != null) {
-            for (String consumes : methodRequestMapping.consumes()) {
-                if (consumes.equals(MediaType.APPLICATION_JSON_VALUE)) {
-                    someArgNeedsSerialization = true;
-                    break;
+            @Nonnull Class<?> returnType,
+            @Nonnull Class<?> targetClass) {
+        // merged annotations cover composed mappings such as @GetMapping and @PostMapping as well. Resolving them is
+        // expensive, but it is done only once per method.
+        RequestMapping methodRequestMapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+        RequestMapping classRequestMapping =
+                AnnotatedElementUtils.findMergedAnnotation(targetClass, RequestMapping.class);
+
+        boolean producesJson = methodRequestMapping != null && containsJson(methodRequestMapping.produces());
+        if (!producesJson) {
+            producesJson = classRequestMapping != null && containsJson(classRequestMapping.produces());
+        }
+
+        boolean consumesJson = methodRequestMapping != null && containsJson(methodRequestMapping.consumes());
+        if (!consumesJson) {
+            consumesJson = classRequestMapping != null && containsJson(classRequestMapping.consumes());
+        }
+
+        String endpointName = getEndpointName(method, targetClass);
+        ResultKind resultKind = getResultKind(method, returnType);
+
+        Annotation annotations[][] = method.getParameterAnnotations();
+        boolean serializedArgs[] = new boolean[argNames.length];
+        BitSet scrubbedArgs = new BitSet(argNames.length);
+
+        for (int i = 0; i < argNames.length; ++i) {
+            boolean sensitive = false;
+            for (Annotation annotation : annotations[i]) {
+                // We only need to serialize a param if @RequestBody annotation is found.
+                if (consumesJson && annotation instanceof RequestBody) {
+                    serializedArgs[i] = true;
+                } else if (annotation instanceof Sensitive) {
+                    sensitive = true;
                 }
             }
+
+            // names of parameters never change, so blacklist lookups and regex matching are done only once per method
+            // and then again only when the blacklist changes.
+            if (enableDataScrubbing && (sensitive || isBlacklisted(argNames[i]))) {
+                scrubbedArgs.set(i);
+            }
         }
 
-        stringBuilder.append(" called with arguments: ");
+        return new MethodDescriptor(
+                method,
+                targetClass,
+                methodName + "()",
+                argNames,
+                serializedArgs,
+                scrubbedArgs,
+                producesJson,
+                consumesJson,
+                // this is required to distinguish between a returned value of null and no return value, as in case of
+                // void return type.
+                Void.class.equals(returnType),
+                resultKind,
+                isResultCaptured(method, returnType, resultKind, producesJson),
+                createPayloadSampler(method, targetClass),
+                endpointName,
+                latencyHistograms.computeIfAbsent(
+                        getQualifiedEndpointName(method, targetClass),
+                        key -> new EndpointLatency(
+                                endpointName,
+                                new LatencyHistogram(latencyWindowNanos, TimeUnit.NANOSECONDS, LATENCY_WINDOW_SLICES)
+                        )
+                ).histogram
+        );
+    }
+
+    /**
+     * @return short name of a controller method as displayed in logs, for example {@code UserController.getUser(int)}
+     */
+    @Nonnull
+    private String getEndpointName(@Nonnull Method method, @Nonnull Class<?> targetClass) {
+        StringBuilder endpointName = new StringBuilder()
+                .append(targetClass.getSimpleName())
+                .append(".")
+                .append(method.getName())
+                .append("(");
 
-        for (int i = 0, length = argNames.length; i < length; ++i) {
-            boolean needsSerialization = false;
+        Class<?> parameterTypes[] = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            endpointName.append(i == 0 ? "" : ", ").append(parameterTypes[i].getSimpleName());
+        }
+        return endpointName.append(")").toString();
+    }
 
-            if (argValues[i] instanceof ByteArrayResource || argValues[i] instanceof MultipartFile) {
-                needsSerialization = true;
-            } else {
-                if (someArgNeedsSerialization) {
-                    // We only need to serialize a param if @RequestBody annotation is found.
-                    for (Annotation annotation : annotations[i]) {
-                        if (annotation instanceof RequestBody) {
-                            needsSerialization = true;
-                            break;
-                        }
+    /**
+     * @return name uniquely identifying a controller method in latency statistics, for example
+     * {@code com.example.UserController.getUser(int)}
+     */
+    @Nonnull
+    private static String getQualifiedEndpointName(@Nonnull Method method, @Nonnull Class<?> targetClass) {
+        StringBuilder endpointName = new StringBuilder()
+                .append(targetClass.getTypeName())
+                .append(".")
+                .append(method.getName())
+                .append("(");
+
+        Class<?> parameterTypes[] = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            endpointName.append(i == 0 ? "" : ", ").append(parameterTypes[i].getTypeName());
+        }
+        return endpointName.append(")").toString();
+    }
+
+    /**
+     * Warms up logging of all logged controller methods if enabled through {@link #setWarmUpOnStartup(boolean)}.
+     */
+    @Override
+    public void onApplicationEvent(@Nonnull ContextRefreshedEvent event) {
+        if (warmUpOnStartup) {
+            warmUp(event.getApplicationContext());
+        }
+    }
+
+    /**
+     * Resolves metadata of all logged controller methods in given context, along with JSON serializers of their request
+     * bodies and returned values, so that first calls after startup don't pay for it.
+     *
+     * @param applicationContext the context to look up controllers in
+     * @return number of methods warmed up
+     */
+    public int warmUp(@Nonnull ApplicationContext applicationContext) {
+        long startNanos = System.nanoTime();
+        int methodCount = 0;
+
+        // bean types are looked up by name so that lazy controllers are not instantiated just for this.
+        for (String beanName : applicationContext.getBeanNamesForAnnotation(Controller.class)) {
+            Class<?> beanType = applicationContext.getType(beanName);
+            if (beanType != null) {
+                methodCount += warmUp(ClassUtils.getUserClass(beanType));
+            }
+        }
+
+        long warmUpTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        LOG.info("Warmed up logging of [" + methodCount + "] controller methods in [" + warmUpTime + " ms]");
+        return methodCount;
+    }
+
+    /**
+     * Resolves metadata of all logged methods of given controller, along with JSON serializers of their request bodies
+     * and returned values.
+     *
+     * @param controllerClass the controller class
+     * @return number of methods warmed up
+     */
+    public int warmUp(@Nonnull Class<?> controllerClass) {
+        int methodCount = 0;
+
+        for (Method method : controllerClass.getMethods()) {
+            String argNames[] = isLogged(method) ? parameterNameDiscoverer.getParameterNames(method) : null;
+            if (argNames == null) {
+                continue;
+            }
+
+            try {
+                MethodDescriptor descriptor = methodDescriptors.get(method);
+                if (descriptor == null || descriptor.getTargetClass() != controllerClass) {
+                    descriptor = cacheMethodDescriptor(
+                            method,
+                            controllerClass,
+                            descriptor,
+                            () -> createMethodDescriptor(
+                                    method,
+                                    method.getName(),
+                                    argNames,
+                                    method.getReturnType(),
+                                    controllerClass
+                            )
+                    );
+                }
+
+                Type resultType = getLoggedResultType(method.getGenericReturnType(), descriptor.getResultKind());
+                if (descriptor.isProducesJson() && resultType != null) {
+                    jsonUtil.warmUp(resultType);
+                }
+
+                Type parameterTypes[] = method.getGenericParameterTypes();
+                for (int i = 0; i < parameterTypes.length; ++i) {
+                    if (descriptor.isArgSerialized(i) && !descriptor.isArgScrubbed(i)) {
+                        jsonUtil.warmUp(parameterTypes[i]);
                     }
                 }
+                ++methodCount;
+            } catch (Exception e) {
+                // warm-up is best effort. Whatever failed here is resolved, or fails again, on first call instead.
+                LOG.warn("Unable to warm up logging of [" + getEndpointName(method, controllerClass) + "]", e);
             }
+        }
+
+        return methodCount;
+    }
+
+    /**
+     * Tells whether results of a method are logged from the captured response body. Captured JSON can't be scrubbed
+     * of properties annotated with {@link Sensitive}, so results which may contain any are always serialized.
+     */
+    private boolean isResultCaptured(
+            @Nonnull Method method,
+            @Nonnull Class<?> returnType,
+            @Nonnull ResultKind resultKind,
+            boolean producesJson) {
+        return responseBodyCapture
+                && producesJson
+                && resultKind == ResultKind.PLAIN
+                && !Void.class.equals(returnType)
+                && !void.class.equals(returnType)
+                && !HttpEntity.class.isAssignableFrom(returnType)
+                && !(enableDataScrubbing && jsonUtil.mayContainSensitiveProperties(method.getGenericReturnType()));
+    }
+
+    /**
+     * @return how values returned by a method with given return type relate to the response
+     */
+    @Nonnull
+    private static ResultKind getResultKind(@Nonnull Method method, @Nonnull Class<?> returnType) {
+        if (HttpEntity.class.isAssignableFrom(returnType)) {
+            // a streamed body may be returned within a response entity, to set status and headers of the response.
+            Class<?> bodyType = ResolvableType.forMethodReturnType(method).as(HttpEntity.class).resolveGeneric(0);
+            ResultKind bodyKind = bodyType == null ? ResultKind.PLAIN : AsyncResults.getResultKind(bodyType);
+            return bodyKind == ResultKind.STREAMING_RESPONSE_BODY || bodyKind == ResultKind.RESPONSE_BODY_EMITTER
+                    ? bodyKind
+                    : ResultKind.PLAIN;
+        }
+        ResultKind resultKind = AsyncResults.getResultKind(returnType);
+        return resultKind != ResultKind.PLAIN ? resultKind : ReactiveResults.getResultKind(returnType);
+    }
+
+    /**
+     * @return type of the value logged as result of a method with given return type, or null if no value is
+     * serialized, as for void methods and streams
+     */
+    @Nullable
+    private static Type getLoggedResultType(@Nonnull Type returnType, @Nonnull ResultKind resultKind) {
+        if (resultKind == ResultKind.PLAIN) {
+            return returnType == void.class ? null : getBodyType(returnType);
+        } else if (resultKind.isStreamed()) {
+            return null;
+        }
+        // deferred results carry the eventual value as their first type argument, as in CompletableFuture<User>.
+        return returnType instanceof ParameterizedType
+                ? getBodyType(((ParameterizedType)returnType).getActualTypeArguments()[0])
+                : null;
+    }
+
+    /**
+     * @return type of the body if given type is a response entity, as in ResponseEntity&lt;User&gt;, otherwise the
+     * type itself. Null if the body type is unknown.
+     */
+    @Nullable
+    private static Type getBodyType(@Nonnull Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            Type rawType = parameterizedType.getRawType();
+            return rawType instanceof Class && HttpEntity.class.isAssignableFrom((Class<?>)rawType)
+                    ? parameterizedType.getActualTypeArguments()[0]
+                    : type;
+        }
+        return type instanceof Class && HttpEntity.class.isAssignableFrom((Class<?>)type) ? null : type;
+    }
+
+    /**
+     * Tells whether a method is matched by pointcuts of this aspect, without a joinpoint at hand.
+     */
+    private boolean isLogged(@Nonnull Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+
+        boolean controller = declaringClass.isAnnotationPresent(RestController.class)
+                || declaringClass.isAnnotationPresent(Controller.class);
+
+        boolean loggingEnabled = method.isAnnotationPresent(Logging.class)
+                || (declaringClass.isAnnotationPresent(Logging.class)
+                && !declaringClass.isAnnotationPresent(NoLogging.class));
+
+        return controller
+                && loggingEnabled
+                && !method.isAnnotationPresent(NoLogging.class)
+                && !method.isBridge()
+                && !method.isSynthetic();
+    }
+
+    /**
+     * Returns latency statistics of every logged controller method called so far, over the latency window.
+     *
+     * @return latency statistics by qualified endpoint name, for example
+     * {@code com.example.UserController.getUser(int)}
+     */
+    @Nonnull
+    public Map<String, LatencySnapshot> getLatencySnapshots() {
+        Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+        latencyHistograms.forEach((endpointName, latency) -> snapshots.put(endpointName, latency.histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Returns latency statistics of a single controller method over the latency window.
+     *
+     * @param endpointName qualified endpoint name, for example {@code com.example.UserController.getUser(int)}, or
+     *            the short one, for example {@code UserController.getUser(int)}, as long as it is not ambiguous
+     * @return latency statistics of the method, or null if it was never called or the short name is ambiguous
+     */
+    @Nullable
+    public LatencySnapshot getLatencySnapshot(@Nonnull String endpointName) {
+        EndpointLatency latency = latencyHistograms.get(endpointName);
+        if (latency == null) {
+            for (EndpointLatency candidate : latencyHistograms.values()) {
+                if (candidate.endpointName.equals(endpointName)) {
+                    if (latency != null) {
+                        return null;
+                    }
+                    latency = candidate;
+                }
+            }
+        }
+        return latency == null ? null : latency.histogram.snapshot();
+    }
+
+    /**
+     * Sets duration of the rolling window latency statistics are computed over. Statistics collected so far are
+     * discarded.
+     *
+     * @param window window duration
+     * @param unit unit of window
+     */
+    public void setLatencyWindow(long window, @Nonnull TimeUnit unit) {
+        latencyWindowNanos = unit.toNanos(window);
+        latencyHistograms.clear();
+        onConfigurationChanged();
+    }
+
+    /**
+     * Creates payload sampler of a method. Sampling settings are looked up in following order, first one found wins -
+     * <ol>
+     * <li>Properties {@code controller-logger.payload-sampling.<ControllerClassName>.<methodName>.rate} and
+     * {@code controller-logger.payload-sampling.<ControllerClassName>.<methodName>.per-second}</li>
+     * <li>{@link Logging} annotation on method</li>
+     * <li>{@link Logging} annotation on controller class</li>
+     * <li>Global settings</li>
+     * </ol>
+     *
+     * @param method the controller method
+     * @param targetClass class of the controller the method is invoked on
+     * @return payload sampler for the method
+     */
+    @Nonnull
+    protected PayloadSampler createPayloadSampler(@Nonnull Method method, @Nonnull Class<?> targetClass) {
+        double sampleRate = payloadSampleRate;
+        int perSecond = payloadsPerSecond;
+
+        Logging[] loggingAnnotations = {targetClass.getAnnotation(Logging.class), method.getAnnotation(Logging.class)};
+        for (Logging logging : loggingAnnotations) {
+            if (logging != null && (logging.payloadSampleRate() >= 0 || logging.payloadsPerSecond() >= 0)) {
+                sampleRate = logging.payloadSampleRate() >= 0 ? logging.payloadSampleRate() : 1;
+                perSecond = Math.max(0, logging.payloadsPerSecond());
+            }
+        }
 
-            stringBuilder.append(argNames[i]).append(": [");
+        if (environment != null) {
+            String prefix = PAYLOAD_SAMPLING_PROPERTY_PREFIX + targetClass.getSimpleName() + "." + method.getName();
+            Double rateProperty = environment.getProperty(prefix + ".rate", Double.class);
+            Integer perSecondProperty = environment.getProperty(prefix + ".per-second", Integer.class);
+
+            if (rateProperty != null || perSecondProperty != null) {
+                sampleRate = rateProperty != null ? rateProperty : 1;
+                perSecond = perSecondProperty != null ? Math.max(0, perSecondProperty) : 0;
+            }
+        }
+
+        return perSecond > 0 ? PayloadSampler.perSecond(perSecond) : PayloadSampler.fixedRate(sampleRate);
+    }
+
+    /**
+     * Reads global payload sampling settings from properties {@code controller-logger.payload-sampling.rate} and
+     * {@code controller-logger.payload-sampling.per-second}, if present.
+     */
+    @Override
+    public void setEnvironment(@Nonnull Environment environment) {
+        this.environment = environment;
+
+        Double rateProperty = environment.getProperty(PAYLOAD_SAMPLING_PROPERTY_PREFIX + "rate", Double.class);
+        if (rateProperty != null) {
+            payloadSampleRate = rateProperty;
+        }
+
+        Integer perSecondProperty =
+                environment.getProperty(PAYLOAD_SAMPLING_PROPERTY_PREFIX + "per-second", Integer.class);
+        if (perSecondProperty != null) {
+            payloadsPerSecond = Math.max(0, perSecondProperty);
+        }
+
+        onConfigurationChanged();
+    }
+
+    @Override
+    protected void onConfigurationChanged() {
+        methodDescriptors.clear();
+        inheritedMethodDescriptors.clear();
+        configurePropertyScrubbing();
+    }
+
+    /**
+     * Applies data scrubbing to properties of serialized request bodies and returned values as well, at any depth,
+     * using the same blacklist as for argument names.
+     */
+    private void configurePropertyScrubbing() {
+        jsonUtil.setPropertyScrubbing(enableDataScrubbing ? this::isBlacklisted : null, scrubbedValue);
+    }
+
+    private boolean containsJson(@Nonnull String[] mediaTypes) {
+        for (String mediaType : mediaTypes) {
+            if (mediaType.equals(MediaType.APPLICATION_JSON_VALUE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isBlacklisted(@Nonnull String argName) {
+        return paramBlacklist.contains(argName.toLowerCase())
+                || (paramBlacklistRegex != null && paramBlacklistRegex.matcher(argName).matches());
+    }
+
+    /**
+     * Generated name-value pair of method's formal arguments. Appends the generated string in provided StringBuilder,
+     * which must already contain {@link MethodDescriptor#getArgumentsPrefix()}.
+     *
+     * @param descriptor descriptor of the method whose arguments are being logged
+     * @param argValues String[] containing method's formal argument values. Order of values must correspond to order on
+     *            arg names in descriptor.
+     * @param stringBuilder the StringBuilder to append argument data to.
+     */
+    private void logFunctionArguments(
+            @Nonnull MethodDescriptor descriptor,
+            @Nonnull Object[] argValues,
+            @Nonnull StringBuilder stringBuilder) {
+        for (int i = 0, length = descriptor.getArgCount(); i < length; ++i) {
+            // scrubbed values are never serialized, not even request bodies.
+            boolean needsSerialization = !descriptor.isArgScrubbed(i) && (descriptor.isArgSerialized(i)
+                    || argValues[i] instanceof ByteArrayResource
+                    || argValues[i] instanceof MultipartFile);
+
+            stringBuilder.append(descriptor.getArgLabel(i));
             if (needsSerialization) {
                 String argClassName = argValues[i] == null ? "NULL" : argValues[i].getClass().getName();
                 serialize(argValues[i], argClassName, stringBuilder);
             } else {
-                stringBuilder.append(getScrubbedValue(argNames[i], argValues[i]));
+                valueRenderer.render(getScrubbedValue(descriptor, i, argValues[i]), stringBuilder);
             }
-            stringBuilder.append("]").append(i == (length - 1) ? "" : ", ");
+            stringBuilder.append("]");
         }
     }
 
     /**
-     * Returns scrubbed value for a given arg name-value. The original arg value is returned
-     * if data scrubbing is disabled.
+     * Returns scrubbed value for a given arg. The original arg value is returned if data scrubbing is disabled, which
+     * is already accounted for in the descriptor.
      *
-     * @param argName formal parameter name
+     * @param descriptor descriptor of the method the argument belongs to
+     * @param argIndex index of the formal parameter
      * @param argValue the parameter value
      * @return scrubbed value of argValue, or original value if data scrubbing is disabled
      */
-    private Object getScrubbedValue(@Nonnull String argName, @Nullable Object argValue) {
-        Object argValueToUse = argValue;
-
-        if (enableDataScrubbing) {
-            if (paramBlacklist.contains(argName.toLowerCase())
-                    || (paramBlacklistRegex != null && paramBlacklistRegex.matcher(argName).matches())) {
-                argValueToUse = scrubbedValue;
-            }
-        }
-
-        return argValueToUse;
+    private Object getScrubbedValue(@Nonnull MethodDescriptor descriptor, int argIndex, @Nullable Object argValue) {
+        return descriptor.isArgScrubbed(argIndex) ? scrubbedValue : argValue;
     }
 
     public void setLOG(@Nonnull Logger LOG) {
@@ -329,9 +1602,59 @@ public class GenericControllerAspect extends LoggerAspect implements ControllerA
 
     public void setJsonUtil(@Nonnull JsonUtil jsonUtil) {
         this.jsonUtil = jsonUtil;
+        serializationFallbacks.clear();
+        serializationFailures.clear();
+        serializationWarnings.clear();
+        configurePropertyScrubbing();
+    }
+
+    /**
+     * Serializes logged payloads with given mapper, so that modules and custom serializers configured for the
+     * application apply to logs as well. The mapper itself is not modified, data scrubbing is applied to a copy of it.
+     *
+     * @param objectMapper the mapper to serialize with
+     */
+    public void setObjectMapper(@Nonnull ObjectMapper objectMapper) {
+        setJsonUtil(new JsonUtil(objectMapper));
     }
 
     public void setRequestUtil(@Nonnull RequestUtil requestUtil) {
         this.requestUtil = requestUtil;
     }
+
+    /**
+     * Enables warm-up of logging on application context refresh. Metadata of every logged controller method and JSON
+     * serializers of their request bodies and returned values are then resolved at startup, rather than on first call
+     * of each method.
+     *
+     * @param warmUpOnStartup true to warm up logging on startup
+     */
+    public void setWarmUpOnStartup(boolean warmUpOnStartup) {
+        this.warmUpOnStartup = warmUpOnStartup;
+    }
+
+    /**
+     * Enables asynchronous logging. Serialization of arguments and returned values, building of log messages and the
+     * logger calls are then done by the dispatcher's worker threads instead of request threads.
+     *
+     * @param asyncLogDispatcher the dispatcher to use, or null to log synchronously
+     */
+    public void setAsyncLogDispatcher(@Nullable AsyncLogDispatcher asyncLogDispatcher) {
+        this.asyncLogDispatcher = asyncLogDispatcher;
+    }
+
+    @Nullable
+    public AsyncLogDispatcher getAsyncLogDispatcher() {
+        return asyncLogDispatcher;
+    }
+
+    /**
+     * Flushes pending asynchronous log events on application context shutdown.
+     */
+    @Override
+    public void destroy() {
+        if (asyncLogDispatcher != null) {
+            asyncLogDispatcher.shutdown();
+        }
+    }
 }
@@ -1,9 +1,14 @@
 package io.github.logger.controller.aspect;
 
+import io.github.logger.controller.utils.ValueRenderer;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -13,7 +18,6 @@ import java.util.regex.Pattern;
  */
 public abstract class LoggerAspect {
 
-    // TODO HS 20180211 think about @Sensitive annotation
     protected Set<String> paramBlacklist = new HashSet<>(Arrays.asList(
             "password",
             "passwd",
@@ -30,24 +34,187 @@ public abstract class LoggerAspect {
 
     protected boolean enableDataScrubbing = true;
 
-    // TODO HS 20180210 investigate a faster implementation of regex
     @Nullable
     protected Pattern paramBlacklistRegex;
 
+    /**
+     * Maximum number of characters of a single serialized argument or returned value. 0 means no limit.
+     */
+    protected int maxPayloadChars = 0;
+
+    /**
+     * Maximum number of UTF-8 encoded bytes of a single serialized argument or returned value. 0 means no limit.
+     */
+    protected int maxPayloadBytes = 0;
+
+    /**
+     * Fraction of calls, between 0 and 1, whose arguments and returned value are logged.
+     */
+    protected double payloadSampleRate = 1;
+
+    /**
+     * Maximum number of calls per second, per method, whose arguments and returned value are logged. 0 means no limit.
+     */
+    protected int payloadsPerSecond = 0;
+
+    /**
+     * Whether each call is logged as a single log event, instead of separate events for arguments, execution time and
+     * returned value.
+     */
+    protected boolean consolidatedLogging = false;
+
+    /**
+     * Whether each call is logged as a single JSON object, instead of human readable text.
+     */
+    protected boolean structuredLogging = false;
+
+    /**
+     * Whether returned values of JSON endpoints are logged from the response body as written by the HTTP message
+     * converter, instead of being serialized once more for logging.
+     */
+    protected boolean responseBodyCapture = false;
+
+    /**
+     * Renders arguments and returned values which are not serialized to JSON.
+     */
+    @Nonnull
+    protected volatile ValueRenderer valueRenderer = new ValueRenderer(100, 5, 1000);
+
+    /**
+     * Names of response headers logged with {@code ResponseEntity} and {@code HttpEntity} results. Other headers are
+     * never logged.
+     */
+    @Nonnull
+    protected volatile List<String> loggedResponseHeaders = Arrays.asList("Content-Type", "Location");
+
     public void setDefaultScrubbedValue(@Nonnull String defaultScrubbedValue) {
         scrubbedValue = defaultScrubbedValue;
+        onConfigurationChanged();
     }
 
     public void setEnableDataScrubbing(boolean enableDataScrubbing) {
         this.enableDataScrubbing = enableDataScrubbing;
+        onConfigurationChanged();
+    }
+
+    /**
+     * Limits size of serialized arguments and returned values in characters. Serialization is stopped as soon as the
+     * limit is reached and the logged JSON is marked as truncated.
+     *
+     * @param maxPayloadChars maximum number of characters, 0 for no limit
+     */
+    public void setMaxPayloadChars(int maxPayloadChars) {
+        this.maxPayloadChars = Math.max(0, maxPayloadChars);
+    }
+
+    /**
+     * Limits size of serialized arguments and returned values in UTF-8 encoded bytes. Serialization is stopped as soon
+     * as the limit is reached and the logged JSON is marked as truncated.
+     *
+     * @param maxPayloadBytes maximum number of bytes, 0 for no limit
+     */
+    public void setMaxPayloadBytes(int maxPayloadBytes) {
+        this.maxPayloadBytes = Math.max(0, maxPayloadBytes);
+    }
+
+    /**
+     * Limits how much of arguments and returned values which are not serialized to JSON, such as request parameters,
+     * is logged. Defaults are 100 elements, a depth of 5 and 1000 characters.
+     *
+     * @param maxElements maximum number of logged elements of a collection, map or array, 0 for no limit
+     * @param maxDepth maximum nesting depth of logged collections, maps and arrays, 0 for no limit
+     * @param maxChars maximum number of logged characters of a single string or other value, 0 for no limit
+     */
+    public void setValueRenderingLimits(int maxElements, int maxDepth, int maxChars) {
+        this.valueRenderer = new ValueRenderer(maxElements, maxDepth, maxChars);
+    }
+
+    /**
+     * Sets names of response headers logged with {@code ResponseEntity} and {@code HttpEntity} results, matched case
+     * insensitively. Defaults are {@code Content-Type} and {@code Location}.
+     *
+     * @param loggedResponseHeaders names of logged headers, empty to log no headers
+     */
+    public void setLoggedResponseHeaders(@Nonnull Collection<String> loggedResponseHeaders) {
+        this.loggedResponseHeaders = new ArrayList<>(loggedResponseHeaders);
+    }
+
+    /**
+     * Sets default fraction of calls whose arguments and returned value are logged. Execution time is logged for all
+     * calls. Can be overridden per method through {@link io.github.logger.controller.annotation.Logging}.
+     *
+     * @param payloadSampleRate fraction of calls between 0 and 1
+     */
+    public void setPayloadSampleRate(double payloadSampleRate) {
+        this.payloadSampleRate = payloadSampleRate;
+        onConfigurationChanged();
+    }
+
+    /**
+     * Sets default maximum number of calls per second, per method, whose arguments and returned value are logged. Takes
+     * precedence over sample rate. Can be overridden per method through
+     * {@link io.github.logger.controller.annotation.Logging}.
+     *
+     * @param payloadsPerSecond maximum calls per second, 0 for no limit
+     */
+    public void setPayloadsPerSecond(int payloadsPerSecond) {
+        this.payloadsPerSecond = Math.max(0, payloadsPerSecond);
+        onConfigurationChanged();
+    }
+
+    /**
+     * Switches to logging each call as a single log event, containing arguments, request context, execution time and
+     * either returned value or thrown exception. This cuts number of log events per call from three to one.
+     *
+     * @param consolidatedLogging true to log a single event per call
+     */
+    public void setConsolidatedLogging(boolean consolidatedLogging) {
+        this.consolidatedLogging = consolidatedLogging;
+    }
+
+    /**
+     * Switches to logging returned values of JSON endpoints from the response body written by the HTTP message
+     * converter, captured by {@link io.github.logger.controller.capture.ResponseBodyCaptureFilter} and
+     * {@link io.github.logger.controller.capture.ResponseBodyCaptureAdvice}, both of which must be registered. Values
+     * are then serialized once, for the response, instead of twice. Properties are scrubbed by name in the captured
+     * JSON. {@link io.github.logger.controller.annotation.Sensitive} annotations can't be applied to it, so results of
+     * types which may contain annotated properties are still serialized for logging, as are results whose response
+     * body isn't captured.
+     *
+     * @param responseBodyCapture true to log captured response bodies
+     */
+    public void setResponseBodyCapture(boolean responseBodyCapture) {
+        this.responseBodyCapture = responseBodyCapture;
+        onConfigurationChanged();
+    }
+
+    /**
+     * Switches to logging each call as a single JSON object on one line, with method, endpoint, request details,
+     * execution time, status, arguments and returned value or thrown exception as separate fields. Log pipelines can
+     * then index these fields directly instead of parsing them out of text messages.
+     *
+     * @param structuredLogging true to log a JSON object per call
+     */
+    public void setStructuredLogging(boolean structuredLogging) {
+        this.structuredLogging = structuredLogging;
     }
 
     public void setParamBlacklistRegex(@Nonnull String paramBlacklistRegex) {
         this.paramBlacklistRegex = Pattern.compile(paramBlacklistRegex);
+        onConfigurationChanged();
     }
 
     public void setCustomParamBlacklist(@Nonnull Set<String> customParamBlacklist) {
         customParamBlacklist.forEach(i-> paramBlacklist.add(i.toLowerCase()));
+        onConfigurationChanged();
+    }
+
+    /**
+     * Invoked whenever data scrubbing, the param blacklist, blacklist regex, payload sampling or response body capture
+     * changes. Loggers caching decisions based on these must discard them here.
+     */
+    protected void onConfigurationChanged() {
+        // no-op
     }
 
 }
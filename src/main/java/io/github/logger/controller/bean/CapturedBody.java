@@ -0,0 +1,48 @@
+package io.github.logger.controller.bean;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Logged in place of the result of a call whose response body was captured as written by an HTTP message converter,
+ * so that the result doesn't need to be serialized a second time for logging.
+ */
+public class CapturedBody {
+
+    @Nonnull
+    private final byte[] bytes;
+
+    private final int length;
+
+    private final long totalBytes;
+
+    /**
+     * @param bytes buffer holding the captured bytes, which must not be modified afterwards
+     * @param length number of captured bytes in the buffer
+     * @param totalBytes number of bytes of the whole body, more than captured if the capture was cut off
+     */
+    public CapturedBody(@Nonnull byte[] bytes, int length, long totalBytes) {
+        this.bytes = bytes;
+        this.length = length;
+        this.totalBytes = totalBytes;
+    }
+
+    @Nonnull
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return true if the body was larger than the capture limit, so only its beginning was captured
+     */
+    public boolean isTruncated() {
+        return totalBytes > length;
+    }
+}
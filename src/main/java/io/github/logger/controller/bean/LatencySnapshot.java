@@ -0,0 +1,96 @@
+package io.github.logger.controller.bean;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency statistics of a single endpoint over a rolling time window. All latencies are in nanoseconds, and
+ * percentiles are accurate to within the histogram's bucket precision.
+ */
+public class LatencySnapshot {
+
+    private final long windowNanos;
+
+    private final long count;
+
+    private final long errorCount;
+
+    private final long p50;
+
+    private final long p90;
+
+    private final long p99;
+
+    private final long p999;
+
+    private final long max;
+
+    public LatencySnapshot(
+            long windowNanos,
+            long count,
+            long errorCount,
+            long p50,
+            long p90,
+            long p99,
+            long p999,
+            long max) {
+        this.windowNanos = windowNanos;
+        this.count = count;
+        this.errorCount = errorCount;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    public long getWindowNanos() {
+        return windowNanos;
+    }
+
+    /**
+     * @return number of calls completed within the window, including failed calls
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return number of calls within the window which threw an exception
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "count: [" + count + "], errors: [" + errorCount + "]"
+                + ", p50: [" + toMillis(p50) + " ms], p90: [" + toMillis(p90) + " ms]"
+                + ", p99: [" + toMillis(p99) + " ms], p999: [" + toMillis(p999) + " ms]"
+                + ", max: [" + toMillis(max) + " ms]"
+                + ", window: [" + TimeUnit.NANOSECONDS.toSeconds(windowNanos) + " s]";
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000 / 1000.0;
+    }
+}
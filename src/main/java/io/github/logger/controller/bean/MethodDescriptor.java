@@ -0,0 +1,303 @@
+package io.github.logger.controller.bean;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.github.logger.controller.utils.LatencyHistogram;
+import io.github.logger.controller.utils.PayloadSampler;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Method;
+import java.util.BitSet;
+
+/**
+ * Immutable logging metadata of a single controller method.
+ *
+ * <p>Everything in here depends only on the method (and the controller class it is invoked on), never on the actual
+ * arguments, so it is resolved once on the first invocation and reused for every invocation after that.
+ */
+public class MethodDescriptor {
+
+    @Nonnull
+    private final Method method;
+
+    @Nonnull
+    private final Class<?> targetClass;
+
+    @Nonnull
+    private final String methodName;
+
+    @Nonnull
+    private final String[] argNames;
+
+    @Nonnull
+    private final boolean[] serializedArgs;
+
+    /**
+     * Bit per argument, set if its value must be scrubbed.
+     */
+    @Nonnull
+    private final BitSet scrubbedArgs;
+
+    private final boolean producesJson;
+
+    private final boolean consumesJson;
+
+    private final boolean voidReturn;
+
+    @Nonnull
+    private final ResultKind resultKind;
+
+    private final boolean resultCaptured;
+
+    @Nonnull
+    private final PayloadSampler payloadSampler;
+
+    @Nonnull
+    private final String endpointName;
+
+    @Nonnull
+    private final LatencyHistogram latencyHistogram;
+
+    /*
+     * Fragments of log messages which depend only on the method, precompiled so they don't have to be concatenated on
+     * every call.
+     */
+
+    @Nonnull
+    private final String argumentsPrefix;
+
+    @Nonnull
+    private final String[] argLabels;
+
+    @Nonnull
+    private final String executionTimePrefix;
+
+    @Nonnull
+    private final String returnedPrefix;
+
+    @Nonnull
+    private final String structuredPrefix;
+
+    @Nonnull
+    private final String[] structuredArgLabels;
+
+    /**
+     * Recent maximum length of log messages of this method. Updated without synchronization, as it is only a hint.
+     */
+    private int messageSizeHint;
+
+    public MethodDescriptor(
+            @Nonnull Method method,
+            @Nonnull Class<?> targetClass,
+            @Nonnull String methodName,
+            @Nonnull String[] argNames,
+            @Nonnull boolean[] serializedArgs,
+            @Nonnull BitSet scrubbedArgs,
+            boolean producesJson,
+            boolean consumesJson,
+            boolean voidReturn,
+            @Nonnull ResultKind resultKind,
+            boolean resultCaptured,
+            @Nonnull PayloadSampler payloadSampler,
+            @Nonnull String endpointName,
+            @Nonnull LatencyHistogram latencyHistogram) {
+        this.method = method;
+        this.targetClass = targetClass;
+        this.methodName = methodName;
+        this.argNames = argNames.clone();
+        this.serializedArgs = serializedArgs.clone();
+        this.scrubbedArgs = (BitSet)scrubbedArgs.clone();
+        this.producesJson = producesJson;
+        this.consumesJson = consumesJson;
+        this.voidReturn = voidReturn;
+        this.resultKind = resultKind;
+        this.resultCaptured = resultCaptured;
+        this.payloadSampler = payloadSampler;
+        this.endpointName = endpointName;
+        this.latencyHistogram = latencyHistogram;
+
+        this.argumentsPrefix = methodName + " called with arguments: ";
+        this.executionTimePrefix = methodName + " took [";
+        this.returnedPrefix = methodName + " returned: [";
+        this.structuredPrefix = "{\"method\":" + quote(method.getName()) + ",\"endpoint\":" + quote(endpointName);
+
+        this.argLabels = new String[argNames.length];
+        this.structuredArgLabels = new String[argNames.length];
+        for (int i = 0; i < argNames.length; ++i) {
+            argLabels[i] = (i == 0 ? "" : ", ") + argNames[i] + ": [";
+            structuredArgLabels[i] = (i == 0 ? "" : ",") + quote(argNames[i]) + ":";
+        }
+    }
+
+    @Nonnull
+    private static String quote(@Nonnull String value) {
+        return '"' + new String(JsonStringEncoder.getInstance().quoteAsString(value)) + '"';
+    }
+
+    @Nonnull
+    public Method getMethod() {
+        return method;
+    }
+
+    @Nonnull
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    /**
+     * @return method name as displayed in log messages, for example {@code getUser()}
+     */
+    @Nonnull
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public int getArgCount() {
+        return argNames.length;
+    }
+
+    @Nonnull
+    public String getArgName(int index) {
+        return argNames[index];
+    }
+
+    /**
+     * @return true if argument at given index is a request body consumed as JSON, and hence needs to be serialized
+     */
+    public boolean isArgSerialized(int index) {
+        return serializedArgs[index];
+    }
+
+    /**
+     * @return true if argument at given index has a blacklisted name and its value must be scrubbed
+     */
+    public boolean isArgScrubbed(int index) {
+        return scrubbedArgs.get(index);
+    }
+
+    public boolean isProducesJson() {
+        return producesJson;
+    }
+
+    public boolean isConsumesJson() {
+        return consumesJson;
+    }
+
+    /**
+     * @return true if method has no return value. This is required to distinguish between a returned value of null and
+     * no return value at all.
+     */
+    public boolean isVoidReturn() {
+        return voidReturn;
+    }
+
+    /**
+     * @return how the returned value relates to the response, such as whether it completes only after the method
+     * returned
+     */
+    @Nonnull
+    public ResultKind getResultKind() {
+        return resultKind;
+    }
+
+    /**
+     * @return true if the returned value is logged from the response body as written, which is never the case for
+     * results which may contain properties annotated with {@link io.github.logger.controller.annotation.Sensitive}
+     */
+    public boolean isResultCaptured() {
+        return resultCaptured;
+    }
+
+    /**
+     * @return sampler deciding whether arguments and returned value of a call to this method are logged
+     */
+    @Nonnull
+    public PayloadSampler getPayloadSampler() {
+        return payloadSampler;
+    }
+
+    /**
+     * @return name identifying the method in latency statistics, for example {@code UserController.getUser(int)}
+     */
+    @Nonnull
+    public String getEndpointName() {
+        return endpointName;
+    }
+
+    /**
+     * @return histogram recording execution time of every call to this method
+     */
+    @Nonnull
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    /**
+     * @return method name followed by the text preceding logged arguments, for example
+     * {@code getUser() called with arguments: }
+     */
+    @Nonnull
+    public String getArgumentsPrefix() {
+        return argumentsPrefix;
+    }
+
+    /**
+     * @return label preceding the logged value of argument at given index, including separator from the previous
+     * argument, for example {@code , userId: [}
+     */
+    @Nonnull
+    public String getArgLabel(int index) {
+        return argLabels[index];
+    }
+
+    /**
+     * @return method name followed by the text preceding logged execution time, for example {@code getUser() took [}
+     */
+    @Nonnull
+    public String getExecutionTimePrefix() {
+        return executionTimePrefix;
+    }
+
+    /**
+     * @return method name followed by the text preceding logged returned value, for example
+     * {@code getUser() returned: [}
+     */
+    @Nonnull
+    public String getReturnedPrefix() {
+        return returnedPrefix;
+    }
+
+    /**
+     * @return opening of the JSON object logged in structured logging, containing method and endpoint fields
+     */
+    @Nonnull
+    public String getStructuredPrefix() {
+        return structuredPrefix;
+    }
+
+    /**
+     * @return quoted JSON field name of argument at given index followed by colon, and preceded by a comma for all but
+     * the first argument
+     */
+    @Nonnull
+    public String getStructuredArgLabel(int index) {
+        return structuredArgLabels[index];
+    }
+
+    /**
+     * @return expected length of the next log message of this method, used to size its buffer up front
+     */
+    public int getMessageSizeHint() {
+        return messageSizeHint;
+    }
+
+    /**
+     * Records length of a log message of this method. The hint follows longer messages at once and decays slowly
+     * towards shorter ones, so it covers the longest kind of message logged per call.
+     *
+     * @param length length of the built log message
+     */
+    public void recordMessageLength(int length) {
+        int hint = messageSizeHint;
+        messageSizeHint = length >= hint ? length : hint - ((hint - length) >> 4);
+    }
+}
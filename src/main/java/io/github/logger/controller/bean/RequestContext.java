@@ -1,8 +1,8 @@
 package io.github.logger.controller.bean;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -24,6 +24,14 @@ public class RequestContext {
         return this;
     }
 
+    /**
+     * @return request details by name, in the order they were added
+     */
+    @Nonnull
+    public Map<String, String> getContext() {
+        return Collections.unmodifiableMap(context);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -39,10 +47,23 @@ public class RequestContext {
         return context.hashCode();
     }
 
+    /**
+     * Appends the same text as {@link #toString()} to given buffer, without building intermediate strings.
+     *
+     * @param target the buffer to append to
+     */
+    public void appendTo(@Nonnull StringBuilder target) {
+        boolean first = true;
+        for (Map.Entry<String, String> entry : context.entrySet()) {
+            target.append(first ? "" : ", ").append(entry.getKey()).append(": [").append(entry.getValue()).append(']');
+            first = false;
+        }
+    }
+
     @Override
     public String toString() {
-        return context.entrySet().stream()
-                .map(e -> e.getKey() + ": [" + e.getValue() + "]")
-                .collect(Collectors.joining(", "));
+        StringBuilder text = new StringBuilder();
+        appendTo(text);
+        return text.toString();
     }
 }
@@ -0,0 +1,87 @@
+package io.github.logger.controller.bean;
+
+/**
+ * How the value returned by a controller method relates to the actual response. Resolved once per method from its
+ * declared return type.
+ */
+public enum ResultKind {
+
+    /**
+     * The returned value is the response, complete as soon as the method returns.
+     */
+    PLAIN,
+
+    /**
+     * {@link java.util.concurrent.CompletionStage}, such as a {@code CompletableFuture}.
+     */
+    COMPLETION_STAGE,
+
+    /**
+     * Spring {@code ListenableFuture}.
+     */
+    LISTENABLE_FUTURE,
+
+    /**
+     * {@link java.util.concurrent.Callable}, executed by Spring MVC on a separate thread.
+     */
+    CALLABLE,
+
+    /**
+     * Spring MVC {@code DeferredResult}, completed by application code on any thread.
+     */
+    DEFERRED_RESULT,
+
+    /**
+     * Spring MVC {@code WebAsyncTask}, a {@code Callable} with timeout and executor.
+     */
+    WEB_ASYNC_TASK,
+
+    /**
+     * Spring MVC {@code StreamingResponseBody}, writing the response body directly on a separate thread. Also returned
+     * as the body of a {@code ResponseEntity}.
+     */
+    STREAMING_RESPONSE_BODY,
+
+    /**
+     * Spring MVC {@code ResponseBodyEmitter}, such as {@code SseEmitter}, sending objects until completed by
+     * application code. Also returned as the body of a {@code ResponseEntity}.
+     */
+    RESPONSE_BODY_EMITTER,
+
+    /**
+     * Reactor {@code Mono}, completing later with at most one value.
+     */
+    MONO,
+
+    /**
+     * Reactor {@code Flux}, emitting any number of elements over time.
+     */
+    FLUX,
+
+    /**
+     * Any other Reactive Streams {@code Publisher}, treated as a stream of elements.
+     */
+    PUBLISHER;
+
+    /**
+     * @return true if the call completes only after the method has returned, so execution time and result must be
+     * logged on completion rather than on return
+     */
+    public boolean isDeferred() {
+        return this != PLAIN;
+    }
+
+    /**
+     * @return true for reactive results, which are observed by subscription
+     */
+    public boolean isReactive() {
+        return this == MONO || this == FLUX || this == PUBLISHER;
+    }
+
+    /**
+     * @return true if the result is a stream of elements, logged as a summary rather than by value
+     */
+    public boolean isStreamed() {
+        return this == FLUX || this == PUBLISHER || this == STREAMING_RESPONSE_BODY || this == RESPONSE_BODY_EMITTER;
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.logger.controller.bean;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logged in place of the result of a streamed response, whose content is never buffered for logging.
+ */
+public class StreamSummary {
+
+    private final long elementCount;
+
+    private final long byteCount;
+
+    private final long timeToFirstElementNanos;
+
+    private final boolean cancelled;
+
+    /**
+     * @param elementCount number of emitted elements, -1 for streams of bytes or if unknown
+     * @param byteCount size of emitted binary and text elements, in bytes and characters respectively, -1 if unknown
+     * @param timeToFirstElementNanos time from the call until the first element or byte was emitted, -1 if there was
+     *            none or if unknown
+     * @param cancelled true if the stream was cancelled by its subscriber, such as a disconnected client
+     */
+    public StreamSummary(long elementCount, long byteCount, long timeToFirstElementNanos, boolean cancelled) {
+        this.elementCount = elementCount;
+        this.byteCount = byteCount;
+        this.timeToFirstElementNanos = timeToFirstElementNanos;
+        this.cancelled = cancelled;
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * @return time from the call until the first element or byte was emitted, -1 if there was none or if unknown
+     */
+    public long getTimeToFirstElementNanos() {
+        return timeToFirstElementNanos;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Appends the same text as {@link #toString()} to given buffer.
+     *
+     * @param target the buffer to append to
+     */
+    public void appendTo(@Nonnull StringBuilder target) {
+        target.append("stream");
+        if (elementCount >= 0) {
+            target.append(" of [").append(elementCount).append("] elements");
+            if (byteCount > 0) {
+                target.append(" of [").append(byteCount).append(" B]");
+            }
+        } else if (byteCount >= 0) {
+            target.append(" of [").append(byteCount).append(" B]");
+        }
+        if (timeToFirstElementNanos >= 0) {
+            target.append(", first after [")
+                    .append(TimeUnit.NANOSECONDS.toMillis(timeToFirstElementNanos))
+                    .append(" ms]");
+        }
+        if (cancelled) {
+            target.append(", cancelled");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        appendTo(text);
+        return text.toString();
+    }
+}
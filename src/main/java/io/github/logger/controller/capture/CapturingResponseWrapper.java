@@ -0,0 +1,92 @@
+package io.github.logger.controller.capture;
+
+import javax.annotation.Nonnull;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+
+/**
+ * Passes everything written to the output stream through to the response right away, copying it to a
+ * {@link ResponseBodyCapture} on the way. Unlike a content caching response, the body is neither held back nor
+ * buffered beyond the capture limit.
+ */
+class CapturingResponseWrapper extends HttpServletResponseWrapper {
+
+    @Nonnull
+    private final ResponseBodyCapture capture;
+
+    private ServletOutputStream outputStream;
+
+    CapturingResponseWrapper(@Nonnull HttpServletResponse response, @Nonnull ResponseBodyCapture capture) {
+        super(response);
+        this.capture = capture;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CapturingOutputStream(super.getOutputStream(), capture);
+        }
+        return outputStream;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        capture.reset();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        capture.reset();
+    }
+
+    private static class CapturingOutputStream extends ServletOutputStream {
+
+        @Nonnull
+        private final ServletOutputStream delegate;
+
+        @Nonnull
+        private final ResponseBodyCapture capture;
+
+        CapturingOutputStream(@Nonnull ServletOutputStream delegate, @Nonnull ResponseBodyCapture capture) {
+            this.delegate = delegate;
+            this.capture = capture;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            capture.write(b);
+        }
+
+        @Override
+        public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            capture.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
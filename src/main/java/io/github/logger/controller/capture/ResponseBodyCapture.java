@@ -0,0 +1,149 @@
+package io.github.logger.controller.capture;
+
+import io.github.logger.controller.bean.CapturedBody;
+import io.github.logger.controller.utils.CompletionListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Captures the beginning of the response body of a single request, as written by an HTTP message converter, so the
+ * written bytes can be logged instead of serializing the result once more.
+ *
+ * <p>A capture is created per request by {@link ResponseBodyCaptureFilter}, started by
+ * {@link ResponseBodyCaptureAdvice} right before a converter writes a JSON body, and completed by the filter once the
+ * request has been processed. Only bytes written in between are captured, up to a limit. Everything happens on the
+ * request thread, so a capture is not thread safe.
+ */
+public class ResponseBodyCapture {
+
+    /**
+     * Name of the request attribute holding the capture of the request.
+     */
+    public static final String ATTRIBUTE = ResponseBodyCapture.class.getName();
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private final int maxBytes;
+
+    @Nonnull
+    private byte[] buffer = NO_BYTES;
+
+    private int length;
+
+    private long totalBytes;
+
+    private boolean capturing;
+
+    private boolean completed;
+
+    @Nullable
+    private List<CompletionListener> listeners;
+
+    /**
+     * @param maxBytes maximum number of captured bytes, further bytes are only counted
+     */
+    public ResponseBodyCapture(int maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * Arranges for given listener to be notified once the response body of the request bound to the current thread has
+     * been written. It is notified with a {@link CapturedBody}, or with a null result if no body was captured, such as
+     * for a body which is not JSON.
+     *
+     * @param listener the listener to notify
+     * @return false if the body of the current request is not captured, because there is no request or
+     * {@link ResponseBodyCaptureFilter} is not applied to it
+     */
+    public static boolean observe(@Nonnull CompletionListener listener) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Object capture = requestAttributes == null
+                ? null
+                : requestAttributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return capture instanceof ResponseBodyCapture && ((ResponseBodyCapture)capture).addListener(listener);
+    }
+
+    private boolean addListener(@Nonnull CompletionListener listener) {
+        if (completed) {
+            return false;
+        }
+        if (listeners == null) {
+            listeners = new ArrayList<>(1);
+        }
+        listeners.add(listener);
+        return true;
+    }
+
+    /**
+     * Starts capturing. Bytes written before are not part of the body and are ignored.
+     */
+    public void start() {
+        reset();
+        capturing = !completed;
+    }
+
+    /**
+     * Discards everything captured so far and stops capturing, as when the response is reset.
+     */
+    public void reset() {
+        capturing = false;
+        length = 0;
+        totalBytes = 0;
+    }
+
+    void write(int b) {
+        if (!capturing) {
+            return;
+        }
+        if (length < maxBytes) {
+            ensureCapacity(length + 1);
+            buffer[length++] = (byte)b;
+        }
+        ++totalBytes;
+    }
+
+    void write(@Nonnull byte[] b, int off, int len) {
+        if (!capturing) {
+            return;
+        }
+        int captured = Math.min(len, maxBytes - length);
+        if (captured > 0) {
+            ensureCapacity(length + captured);
+            System.arraycopy(b, off, buffer, length, captured);
+            length += captured;
+        }
+        totalBytes += len;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            // grows like a ByteArrayOutputStream, but never beyond the limit
+            buffer = Arrays.copyOf(buffer, Math.min(maxBytes, Math.max(capacity, Math.max(256, buffer.length * 2))));
+        }
+    }
+
+    /**
+     * Notifies all listeners with what was captured. Nothing is captured afterwards.
+     */
+    public void complete() {
+        if (completed) {
+            return;
+        }
+        completed = true;
+
+        // the buffer is handed over as is, it is never written again.
+        CapturedBody capturedBody = capturing && totalBytes > 0 ? new CapturedBody(buffer, length, totalBytes) : null;
+        capturing = false;
+        if (listeners != null) {
+            for (CompletionListener listener : listeners) {
+                listener.onCompletion(capturedBody, null);
+            }
+        }
+    }
+}
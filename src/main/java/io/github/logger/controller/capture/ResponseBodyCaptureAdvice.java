@@ -0,0 +1,48 @@
+package io.github.logger.controller.capture;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Starts capturing the response body of a request handled by {@link ResponseBodyCaptureFilter} right before an HTTP
+ * message converter writes it, if it is JSON. The body itself is left as it is.
+ */
+@ControllerAdvice
+public class ResponseBodyCaptureAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(
+            MethodParameter returnType,
+            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest && isJson(selectedContentType)) {
+            Object capture = ((ServletServerHttpRequest)request).getServletRequest()
+                    .getAttribute(ResponseBodyCapture.ATTRIBUTE);
+            if (capture instanceof ResponseBodyCapture) {
+                ((ResponseBodyCapture)capture).start();
+            }
+        }
+        return body;
+    }
+
+    private static boolean isJson(MediaType contentType) {
+        return contentType != null && (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || (contentType.getSubtype() != null && contentType.getSubtype().endsWith("+json")));
+    }
+}
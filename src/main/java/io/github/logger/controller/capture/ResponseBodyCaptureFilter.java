@@ -0,0 +1,45 @@
+package io.github.logger.controller.capture;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Captures response bodies written by HTTP message converters, so that
+ * {@link io.github.logger.controller.aspect.GenericControllerAspect} logs the bytes sent to the client instead of
+ * serializing returned values a second time. Requires {@link ResponseBodyCaptureAdvice} to be registered as well, and
+ * response body capture to be enabled on the aspect.
+ *
+ * <p>The response is written through as usual. Only the first bytes of a JSON body, up to the capture limit, are
+ * copied on the way, so memory used per request is bounded by the limit.
+ */
+public class ResponseBodyCaptureFilter extends OncePerRequestFilter {
+
+    private final int maxCapturedBytes;
+
+    /**
+     * @param maxCapturedBytes maximum number of captured bytes of a single response body
+     */
+    public ResponseBodyCaptureFilter(int maxCapturedBytes) {
+        this.maxCapturedBytes = maxCapturedBytes;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        ResponseBodyCapture capture = new ResponseBodyCapture(maxCapturedBytes);
+        request.setAttribute(ResponseBodyCapture.ATTRIBUTE, capture);
+        try {
+            filterChain.doFilter(request, new CapturingResponseWrapper(response, capture));
+        } finally {
+            request.removeAttribute(ResponseBodyCapture.ATTRIBUTE);
+            capture.complete();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package io.github.logger.controller.utils;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves log rendering (serialization, message building and the logger call itself) off the request thread.
+ *
+ * <p>Request threads submit log events to a bounded queue which is drained by dedicated daemon worker threads. What
+ * happens when the queue is full is decided by the {@link OverflowPolicy}. Log events are executed in submission order
+ * as long as a single worker thread is used.
+ */
+public class AsyncLogDispatcher {
+
+    /**
+     * Action taken when a log event is submitted while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Request thread waits until the queue has room. No log event is ever lost.
+         */
+        BLOCK,
+
+        /**
+         * Payload events (arguments and returned values) are dropped. Other events, such as execution time, are logged
+         * on the request thread instead as they are cheap to render.
+         */
+        DROP_PAYLOAD,
+
+        /**
+         * Every event is dropped.
+         */
+        DROP_ALL
+    }
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+    @Nonnull
+    private final BlockingQueue<Runnable> queue;
+
+    @Nonnull
+    private final OverflowPolicy overflowPolicy;
+
+    @Nonnull
+    private final List<Thread> workers;
+
+    @Nonnull
+    private final LongAdder droppedPayloadEvents = new LongAdder();
+
+    @Nonnull
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private volatile boolean running = true;
+
+    public AsyncLogDispatcher() {
+        this(8192, 1, OverflowPolicy.DROP_PAYLOAD);
+    }
+
+    public AsyncLogDispatcher(int queueCapacity, int workerThreads, @Nonnull OverflowPolicy overflowPolicy) {
+        if (queueCapacity < 1 || workerThreads < 1) {
+            throw new IllegalArgumentException("Queue capacity and worker thread count must be positive");
+        }
+
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.workers = new ArrayList<>(workerThreads);
+
+        for (int i = 0; i < workerThreads; ++i) {
+            Thread worker = new Thread(this::drain, "controller-logger-async-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Submits a log event carrying payload, i.e. serialized arguments or returned value.
+     *
+     * @param event the log event to execute on a worker thread
+     * @return false if the event was dropped due to overflow
+     */
+    public boolean submitPayload(@Nonnull Runnable event) {
+        return submit(event, true);
+    }
+
+    /**
+     * Submits a log event without payload, such as execution time or exception message.
+     *
+     * @param event the log event to execute on a worker thread
+     */
+    public void submit(@Nonnull Runnable event) {
+        submit(event, false);
+    }
+
+    private boolean submit(@Nonnull Runnable event, boolean payload) {
+        if (!running) {
+            // late events during shutdown are logged synchronously rather than lost
+            event.run();
+            return true;
+        }
+
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            put(event);
+        } else if (queue.offer(event)) {
+            runIfShutDown(event);
+        } else {
+            if (payload) {
+                droppedPayloadEvents.increment();
+                return false;
+            } else if (overflowPolicy == OverflowPolicy.DROP_PAYLOAD) {
+                event.run();
+            } else {
+                droppedEvents.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void put(@Nonnull Runnable event) {
+        try {
+            while (!queue.offer(event, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    event.run();
+                    return;
+                }
+            }
+            runIfShutDown(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            event.run();
+        }
+    }
+
+    /**
+     * Shutdown may have begun after the event was found to be accepted but before it was queued, in which case no
+     * worker may be left to take it. It is then taken back and logged synchronously, unless someone took it already.
+     */
+    private void runIfShutDown(@Nonnull Runnable event) {
+        if (!running && queue.remove(event)) {
+            event.run();
+        }
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Runnable event = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    event.run();
+                }
+            } catch (InterruptedException e) {
+                // keep draining, shutdown is signalled through running flag
+            } catch (Throwable t) {
+                // a failing log event must never kill the worker
+            }
+        }
+    }
+
+    /**
+     * Stops accepting events and waits for queued events to be logged.
+     */
+    public void shutdown() {
+        shutdown(DEFAULT_SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops accepting events and waits up to given timeout for queued events to be logged. Events submitted after
+     * shutdown are logged synchronously on the calling thread.
+     *
+     * @param timeout maximum time to wait for the queue to drain
+     * @param unit unit of timeout
+     */
+    public void shutdown(long timeout, @Nonnull TimeUnit unit) {
+        running = false;
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                break;
+            }
+            try {
+                worker.join(remainingMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // events queued while the workers were exiting have no worker left to take them.
+        if (workers.stream().noneMatch(Thread::isAlive)) {
+            Runnable event;
+            while ((event = queue.poll()) != null) {
+                try {
+                    event.run();
+                } catch (Throwable t) {
+                    // a failing log event must not stop the others from being logged
+                }
+            }
+        }
+    }
+
+    @Nonnull
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return number of events currently waiting to be logged
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of payload events dropped because the queue was full
+     */
+    public long getDroppedPayloadCount() {
+        return droppedPayloadEvents.sum();
+    }
+
+    /**
+     * @return number of non-payload events dropped because the queue was full
+     */
+    public long getDroppedEventCount() {
+        return droppedEvents.sum();
+    }
+}
@@ -0,0 +1,355 @@
+package io.github.logger.controller.utils;
+
+import io.github.logger.controller.bean.ResultKind;
+import io.github.logger.controller.bean.StreamSummary;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.CallableProcessingInterceptorAdapter;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptorAdapter;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Observes completion of asynchronous Spring MVC results, such as {@link CompletionStage} or {@link DeferredResult},
+ * without blocking the request thread.
+ *
+ * <p>Futures and callables are observed directly. {@link DeferredResult} and {@link WebAsyncTask} are completed by
+ * Spring MVC itself, so they are observed through interceptors registered with the {@link WebAsyncManager} of the
+ * current request. This requires the call to be made within a request bound to the current thread, as it is when
+ * dispatched by Spring MVC.
+ *
+ * <p>Streamed responses are never buffered. A {@link StreamingResponseBody} is handed a byte counting output stream,
+ * and a {@link ResponseBodyEmitter}, such as an {@code SseEmitter}, is observed until the emitter completes. Either may
+ * also be the body of a {@link ResponseEntity}. As Spring MVC is an optional dependency, its types are matched only if
+ * it is present.
+ */
+public final class AsyncResults {
+
+    private static final String INTERCEPTOR_KEY = AsyncResults.class.getName();
+
+    private static final boolean webMvcPresent = ClassUtils.isPresent(
+            "org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter",
+            AsyncResults.class.getClassLoader()
+    );
+
+    private AsyncResults() {
+        // utility class
+    }
+
+    /**
+     * @param returnType declared return type of a controller method
+     * @return kind of asynchronous result, or {@link ResultKind#PLAIN} if the type is not asynchronous
+     */
+    @Nonnull
+    public static ResultKind getResultKind(@Nonnull Class<?> returnType) {
+        if (CompletionStage.class.isAssignableFrom(returnType)) {
+            return ResultKind.COMPLETION_STAGE;
+        } else if (ListenableFuture.class.isAssignableFrom(returnType)) {
+            return ResultKind.LISTENABLE_FUTURE;
+        } else if (returnType == Callable.class) {
+            // callables are replaced by a wrapper, which would not be an instance of a declared Callable subtype.
+            return ResultKind.CALLABLE;
+        } else if (DeferredResult.class.isAssignableFrom(returnType)) {
+            return ResultKind.DEFERRED_RESULT;
+        } else if (WebAsyncTask.class.isAssignableFrom(returnType)) {
+            return ResultKind.WEB_ASYNC_TASK;
+        } else if (webMvcPresent) {
+            return WebMvcTypes.getResultKind(returnType);
+        }
+        return ResultKind.PLAIN;
+    }
+
+    /**
+     * Arranges for given listener to be notified once when an asynchronous result completes. Timeouts are reported as
+     * failures with a {@link TimeoutException}.
+     *
+     * @param result the asynchronous result returned by a controller method
+     * @param kind kind of the result, as returned by {@link #getResultKind(Class)}
+     * @param startNanos {@link System#nanoTime()} when the call started, to measure time to first byte of streams
+     * @param listener the listener to notify
+     * @return the result to return from the controller method in place of the original one, or null if the result
+     * can't be observed, such as a {@link DeferredResult} returned outside of a request
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static Object observe(
+            @Nonnull Object result,
+            @Nonnull ResultKind kind,
+            long startNanos,
+            @Nonnull CompletionListener listener) {
+        switch (kind) {
+            case COMPLETION_STAGE:
+                // the callback is attached to the original stage, which is still what the controller returns.
+                ((CompletionStage<?>)result).whenComplete(
+                        (value, failure) -> listener.onCompletion(value, unwrap(failure))
+                );
+                return result;
+            case LISTENABLE_FUTURE:
+                ((ListenableFuture<Object>)result).addCallback(new ListenableFutureCallback<Object>() {
+                    @Override
+                    public void onSuccess(Object value) {
+                        listener.onCompletion(value, null);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable failure) {
+                        listener.onCompletion(null, failure);
+                    }
+                });
+                return result;
+            case CALLABLE:
+                return observeCallable((Callable<Object>)result, listener);
+            case DEFERRED_RESULT:
+            case WEB_ASYNC_TASK:
+                return registerInterceptor(kind, listener) ? result : null;
+            case STREAMING_RESPONSE_BODY:
+            case RESPONSE_BODY_EMITTER:
+                return result instanceof HttpEntity
+                        ? observeEntityBody((HttpEntity<?>)result, kind, startNanos, listener)
+                        : observeStream(result, kind, startNanos, listener);
+            default:
+                throw new IllegalArgumentException("Not an asynchronous result kind: " + kind);
+        }
+    }
+
+    @Nullable
+    private static Object observeStream(
+            @Nonnull Object stream,
+            @Nonnull ResultKind kind,
+            long startNanos,
+            @Nonnull CompletionListener listener) {
+        if (kind == ResultKind.STREAMING_RESPONSE_BODY) {
+            return WebMvcTypes.observeStreamingResponseBody(stream, startNanos, listener);
+        }
+
+        // Spring MVC completes a deferred result of its own when the emitter completes. What was sent is not
+        // accessible, so the stream is logged without size.
+        return registerInterceptor(
+                kind,
+                (value, failure) -> listener.onCompletion(
+                        failure == null ? new StreamSummary(-1, -1, -1, false) : null,
+                        failure
+                )
+        ) ? stream : null;
+    }
+
+    /**
+     * Observes the stream within a response entity, returning an entity with same status and headers which holds the
+     * observed stream. An entity without body, such as an error response, is complete on return.
+     */
+    @Nullable
+    private static Object observeEntityBody(
+            @Nonnull HttpEntity<?> entity,
+            @Nonnull ResultKind kind,
+            long startNanos,
+            @Nonnull CompletionListener listener) {
+        Object body = entity.getBody();
+        Object observedBody = body == null ? null : observeStream(body, kind, startNanos, listener);
+        if (observedBody == null) {
+            return null;
+        } else if (observedBody == body) {
+            return entity;
+        }
+        return entity instanceof ResponseEntity
+                ? new ResponseEntity<>(observedBody, entity.getHeaders(), ((ResponseEntity<?>)entity).getStatusCode())
+                : new HttpEntity<>(observedBody, entity.getHeaders());
+    }
+
+    @Nonnull
+    private static Callable<Object> observeCallable(
+            @Nonnull Callable<Object> callable,
+            @Nonnull CompletionListener listener) {
+        return () -> {
+            Object value;
+            try {
+                value = callable.call();
+            } catch (Exception e) {
+                listener.onCompletion(null, e);
+                throw e;
+            }
+            listener.onCompletion(value, null);
+            return value;
+        };
+    }
+
+    private static boolean registerInterceptor(@Nonnull ResultKind kind, @Nonnull CompletionListener listener) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (!(requestAttributes instanceof ServletRequestAttributes)) {
+            return false;
+        }
+
+        // loaded only here, so servlet API classes are not needed unless there is a servlet request.
+        ServletInterceptors.register(requestAttributes, kind, listener);
+        return true;
+    }
+
+    private static class ServletInterceptors {
+
+        static void register(
+                @Nonnull RequestAttributes requestAttributes,
+                @Nonnull ResultKind kind,
+                @Nonnull CompletionListener listener) {
+            WebAsyncManager asyncManager =
+                    WebAsyncUtils.getAsyncManager(((ServletRequestAttributes)requestAttributes).getRequest());
+            AtomicBoolean completed = new AtomicBoolean();
+
+            if (kind != ResultKind.WEB_ASYNC_TASK) {
+                DeferredResultProcessingInterceptor interceptor = new DeferredResultProcessingInterceptorAdapter() {
+                    @Override
+                    public <T> void postProcess(
+                            NativeWebRequest request,
+                            DeferredResult<T> deferredResult,
+                            Object concurrentResult) {
+                        complete(completed, concurrentResult, listener);
+                    }
+
+                    @Override
+                    public <T> boolean handleTimeout(NativeWebRequest request, DeferredResult<T> deferredResult) {
+                        timeout(completed, listener);
+                        return true;
+                    }
+                };
+                asyncManager.registerDeferredResultInterceptor(INTERCEPTOR_KEY, interceptor);
+            } else {
+                CallableProcessingInterceptor interceptor = new CallableProcessingInterceptorAdapter() {
+                    @Override
+                    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+                        complete(completed, concurrentResult, listener);
+                    }
+
+                    @Override
+                    public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+                        timeout(completed, listener);
+                        return RESULT_NONE;
+                    }
+                };
+                asyncManager.registerCallableInterceptor(INTERCEPTOR_KEY, interceptor);
+            }
+        }
+    }
+
+    private static class WebMvcTypes {
+
+        @Nonnull
+        static ResultKind getResultKind(@Nonnull Class<?> returnType) {
+            // streaming bodies are replaced by a wrapper, which would not be an instance of a declared subtype.
+            if (returnType == StreamingResponseBody.class) {
+                return ResultKind.STREAMING_RESPONSE_BODY;
+            } else if (ResponseBodyEmitter.class.isAssignableFrom(returnType)) {
+                return ResultKind.RESPONSE_BODY_EMITTER;
+            }
+            return ResultKind.PLAIN;
+        }
+
+        @Nonnull
+        static StreamingResponseBody observeStreamingResponseBody(
+                @Nonnull Object result,
+                long startNanos,
+                @Nonnull CompletionListener listener) {
+            StreamingResponseBody body = (StreamingResponseBody)result;
+            return outputStream -> {
+                CountingOutputStream countingStream = new CountingOutputStream(outputStream, startNanos);
+                try {
+                    body.writeTo(countingStream);
+                } catch (IOException | RuntimeException e) {
+                    listener.onCompletion(null, e);
+                    throw e;
+                }
+                listener.onCompletion(countingStream.summary(), null);
+            };
+        }
+    }
+
+    /**
+     * Passes bytes through unchanged, counting them and noting when the first one was written.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private final long startNanos;
+
+        private long byteCount;
+
+        private long timeToFirstByteNanos = -1;
+
+        CountingOutputStream(@Nonnull OutputStream out, long startNanos) {
+            super(out);
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count(1);
+        }
+
+        @Override
+        public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+            // FilterOutputStream would write byte by byte
+            out.write(b, off, len);
+            count(len);
+        }
+
+        private void count(int length) {
+            if (timeToFirstByteNanos < 0 && length > 0) {
+                timeToFirstByteNanos = System.nanoTime() - startNanos;
+            }
+            byteCount += length;
+        }
+
+        @Nonnull
+        StreamSummary summary() {
+            return new StreamSummary(-1, byteCount, timeToFirstByteNanos, false);
+        }
+    }
+
+    /**
+     * Spring MVC hands over a failed result as the concurrent result itself.
+     */
+    private static void complete(
+            @Nonnull AtomicBoolean completed,
+            @Nullable Object concurrentResult,
+            @Nonnull CompletionListener listener) {
+        if (completed.compareAndSet(false, true)) {
+            if (concurrentResult instanceof Throwable) {
+                listener.onCompletion(null, (Throwable)concurrentResult);
+            } else {
+                listener.onCompletion(concurrentResult, null);
+            }
+        }
+    }
+
+    private static void timeout(@Nonnull AtomicBoolean completed, @Nonnull CompletionListener listener) {
+        if (completed.compareAndSet(false, true)) {
+            listener.onCompletion(null, new TimeoutException("Asynchronous request timed out"));
+        }
+    }
+
+    @Nullable
+    private static Throwable unwrap(@Nullable Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.logger.controller.utils;
+
+import javax.annotation.Nullable;
+
+/**
+ * Notified once when the deferred result of a controller call completes.
+ */
+@FunctionalInterface
+public interface CompletionListener {
+
+    /**
+     * @param result the value the call completed with, or a {@link io.github.logger.controller.bean.StreamSummary} for
+     *            streamed results. Always null if the call failed.
+     * @param failure the exception the call failed with, null if it succeeded
+     */
+    void onCompletion(@Nullable Object result, @Nullable Throwable failure);
+}
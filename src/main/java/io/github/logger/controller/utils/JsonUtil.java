@@ -1,33 +1,679 @@
 package io.github.logger.controller.utils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.std.MapSerializer;
+import com.fasterxml.jackson.databind.type.MapType;
+import io.github.logger.controller.annotation.Sensitive;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
 
 public class JsonUtil {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    /**
+     * Maximum number of types whose {@link ObjectWriter} is cached. Writers of further types are created on each use.
+     */
+    private static final int MAX_CACHED_WRITERS = 1024;
+
+    /**
+     * Id of the filter scrubbing map entries, which Jackson passes through a property filter just like bean properties.
+     */
+    private static final String SCRUBBING_FILTER_ID = JsonUtil.class.getName() + ".scrubbing";
+
+    /**
+     * The mapper as supplied, never modified. Logging specific configuration is applied to copies of it.
+     */
+    @Nonnull
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Mapper used for serialization along with writers created from it. Both are replaced together whenever property
+     * scrubbing changes.
+     */
+    @Nonnull
+    private volatile Serializers serializers;
+
+    @Nonnull
+    private final ThreadLocal<JsonOutput> jsonOutputs = new ThreadLocal<>();
+
+    public JsonUtil() {
+        this(new ObjectMapper());
+    }
+
+    /**
+     * @param objectMapper mapper to serialize with, usually the one configured for the application so that its modules
+     *            and custom serializers apply to logged payloads as well. It is never modified.
+     */
+    public JsonUtil(@Nonnull ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.serializers = new Serializers(objectMapper);
+    }
 
     @Nonnull
     public String toJson(@Nullable Object object) {
         try {
-            return object == null ? "null" : OBJECT_MAPPER.writeValueAsString(object);
+            return object == null ? "null" : getObjectWriter(object.getClass()).writeValueAsString(object);
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Serializes given object to JSON and appends it to the target. Serialized JSON is streamed straight into the
+     * target without building an intermediate string. If serialization fails, target is restored to its original
+     * length so no partial JSON is left behind.
+     *
+     * @param object the object to serialize
+     * @param target the buffer to append the JSON to
+     */
+    public void toJson(@Nullable Object object, @Nonnull StringBuilder target) {
+        toJson(object, target, 0, 0);
+    }
+
+    /**
+     * Same as {@link #toJson(Object, StringBuilder)}, but stops serialization as soon as the JSON exceeds given size.
+     * The JSON written so far is kept and a {@code ...[truncated, N+ bytes]} marker is appended after it.
+     *
+     * @param object the object to serialize
+     * @param target the buffer to append the JSON to
+     * @param maxChars maximum number of characters of JSON, or 0 for no limit
+     * @param maxBytes maximum number of UTF-8 encoded bytes of JSON, or 0 for no limit
+     * @return false if the JSON was truncated, and hence is not valid JSON
+     */
+    public boolean toJson(@Nullable Object object, @Nonnull StringBuilder target, int maxChars, int maxBytes) {
+        if (object == null) {
+            target.append("null");
+            return true;
+        }
+
+        ObjectWriter objectWriter = getObjectWriter(object.getClass());
+
+        JsonOutput output = acquireOutput();
+        int originalLength = target.length();
+        output.inUse = true;
+        output.writer.reset(target, maxChars, maxBytes);
+        try {
+            objectWriter.writeValue(output.generator, object);
+            output.generator.flush();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            discardOutput(output);
+
+            if (output.writer.truncated) {
+                target.append("...[truncated, ").append(output.writer.byteCount).append("+ bytes]");
+                return false;
+            }
+
+            target.setLength(originalLength);
+            throw e instanceof RuntimeException ? (RuntimeException)e : new RuntimeException(e);
+        } finally {
+            output.inUse = false;
+            output.writer.reset(null, 0, 0);
+        }
+    }
+
+    /**
+     * Copies JSON which was serialized elsewhere, such as a response body written by an HTTP message converter, into
+     * the target token by token. Values of properties scrubbed by name are replaced the same way as when serializing,
+     * without anything being deserialized. Properties annotated with {@link Sensitive} can't be recognized in plain
+     * JSON, so only JSON of types without them, as told by {@link #mayContainSensitiveProperties(Type)}, may be copied.
+     * Size limits apply as in {@link #toJson(Object, StringBuilder, int, int)}.
+     *
+     * @param json buffer holding UTF-8 encoded JSON
+     * @param length number of bytes of JSON in the buffer
+     * @param complete false if the JSON was cut off, in which case it is copied up to the last complete token
+     * @param target the buffer to append the JSON to
+     * @param maxChars maximum number of characters of JSON, or 0 for no limit
+     * @param maxBytes maximum number of UTF-8 encoded bytes of JSON, or 0 for no limit
+     * @return false if the JSON was truncated by the size limits, and hence is not valid JSON
+     */
+    public boolean copyJson(
+            @Nonnull byte[] json,
+            int length,
+            boolean complete,
+            @Nonnull StringBuilder target,
+            int maxChars,
+            int maxBytes) {
+        Serializers serializers = this.serializers;
+
+        JsonOutput output = acquireOutput();
+        int originalLength = target.length();
+        output.inUse = true;
+        output.writer.reset(target, maxChars, maxBytes);
+        try (JsonParser parser = serializers.objectMapper.getFactory().createParser(json, 0, length)) {
+            try {
+                copyTokens(parser, output.generator, serializers);
+            } catch (JsonParseException e) {
+                if (complete) {
+                    throw e;
+                }
+                // structures left open at the cut leave the generator unusable for further values.
+                discardOutput(output);
+            }
+            output.generator.flush();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            discardOutput(output);
+
+            if (output.writer.truncated) {
+                target.append("...[truncated, ").append(output.writer.byteCount).append("+ bytes]");
+                return false;
+            }
+
+            target.setLength(originalLength);
+            throw e instanceof RuntimeException ? (RuntimeException)e : new RuntimeException(e);
+        } finally {
+            output.inUse = false;
+            output.writer.reset(null, 0, 0);
+        }
+    }
+
+    private static void copyTokens(
+            @Nonnull JsonParser parser,
+            @Nonnull JsonGenerator generator,
+            @Nonnull Serializers serializers) throws IOException {
+        Predicate<String> scrubbedProperty = serializers.scrubbedProperty;
+
+        while (parser.nextToken() != null) {
+            if (scrubbedProperty != null
+                    && parser.getCurrentToken() == JsonToken.FIELD_NAME
+                    && scrubbedProperty.test(parser.getCurrentName())) {
+                generator.writeFieldName(parser.getCurrentName());
+                parser.nextToken();
+                parser.skipChildren();
+                generator.writeString(serializers.scrubbedValue);
+            } else {
+                generator.copyCurrentEvent(parser);
+            }
+        }
+    }
+
+    /**
+     * Makes bean properties with matching names, and properties annotated with {@link Sensitive}, serialize as given
+     * value instead of their actual value, at any depth of the serialized object. The decision is made once per
+     * property of each bean type, when Jackson builds the serializer of that type, so scrubbing adds no cost to
+     * serialization itself. Entries of maps with matching keys are scrubbed as well, which is decided per entry.
+     *
+     * @param scrubbedProperty tells whether a property with given name must be scrubbed, or null to disable scrubbing
+     * @param scrubbedValue the value to serialize scrubbed properties as
+     */
+    public void setPropertyScrubbing(@Nullable Predicate<String> scrubbedProperty, @Nonnull String scrubbedValue) {
+        if (scrubbedProperty == null) {
+            serializers = new Serializers(objectMapper);
+            return;
+        }
+
+        // serializers are cached by the mapper, so a change of scrubbed properties needs a mapper of its own.
+        ObjectMapper scrubbingObjectMapper = objectMapper.copy().registerModule(
+                new SimpleModule().setSerializerModifier(
+                        new ScrubbingSerializerModifier(scrubbedProperty, scrubbedValue)
+                )
+        );
+        scrubbingObjectMapper.setFilterProvider(new ScrubbingFilterProvider(
+                objectMapper.getSerializationConfig().getFilterProvider(),
+                new ScrubbingMapEntryFilter(scrubbedProperty, scrubbedValue)
+        ));
+        serializers = new Serializers(scrubbingObjectMapper, scrubbedProperty, scrubbedValue);
+    }
+
+    /**
+     * Resolves serializers of given type, and of types it contains, ahead of its first serialization so that the first
+     * call serializing it doesn't pay for Jackson introspecting it.
+     *
+     * @param type declared type of the objects to be serialized
+     */
+    public void warmUp(@Nonnull Type type) {
+        Serializers serializers = this.serializers;
+        JavaType javaType = serializers.objectMapper.constructType(type);
+
+        if (type instanceof Class && javaType.isConcrete()) {
+            // objects of a concrete class are serialized by the writer of that same class, so it can be cached already.
+            getObjectWriter((Class<?>)type);
+        } else {
+            // runtime class is unknown, but serializers of contained types are still cached by the mapper.
+            serializers.objectMapper.writerFor(javaType);
+        }
+    }
+
+    /**
+     * Tells whether values of given type may contain a property annotated with {@link Sensitive}, at any depth. Such
+     * properties can only be scrubbed while serializing, not in JSON serialized elsewhere. Types whose properties are
+     * not known from the declaration alone, such as {@code Object} or abstract types, are assumed to contain one.
+     *
+     * @param type declared type of the values
+     * @return false only if no value of the type can contain a sensitive property
+     */
+    public boolean mayContainSensitiveProperties(@Nonnull Type type) {
+        SerializationConfig config = objectMapper.getSerializationConfig();
+        return mayContainSensitiveProperties(config, objectMapper.constructType(type), new HashSet<>());
+    }
+
+    private static boolean mayContainSensitiveProperties(
+            @Nonnull SerializationConfig config,
+            @Nonnull JavaType type,
+            @Nonnull Set<JavaType> visitedTypes) {
+        if (!visitedTypes.add(type)) {
+            // recursive types are checked once
+            return false;
+        }
+
+        if (type.isContainerType() || type.isReferenceType()) {
+            // arrays, collections, maps and optionals
+            JavaType keyType = type.getKeyType();
+            JavaType contentType = type.getContentType();
+            return (keyType != null && mayContainSensitiveProperties(config, keyType, visitedTypes))
+                    || (contentType != null && mayContainSensitiveProperties(config, contentType, visitedTypes));
+        }
+
+        Class<?> rawClass = type.getRawClass();
+        if (rawClass.isPrimitive() || rawClass.isEnum()) {
+            return false;
+        } else if (rawClass == Object.class || rawClass.isInterface() || Modifier.isAbstract(rawClass.getModifiers())) {
+            // serialized with properties of whatever runtime class the value has
+            return true;
+        } else if (rawClass.getName().startsWith("java.")) {
+            return false;
+        }
+
+        BeanDescription beanDescription = config.introspect(type);
+        for (BeanPropertyDefinition property : beanDescription.findProperties()) {
+            if ((property.getField() != null && property.getField().hasAnnotation(Sensitive.class))
+                    || (property.getGetter() != null && property.getGetter().hasAnnotation(Sensitive.class))) {
+                return true;
+            }
+
+            AnnotatedMember accessor = property.getAccessor();
+            if (accessor != null && mayContainSensitiveProperties(config, accessor.getType(), visitedTypes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public <T> T fromJson(@Nonnull String json, @Nonnull Type type) {
-        JavaType javaType = OBJECT_MAPPER.constructType(type);
+        JavaType javaType = objectMapper.constructType(type);
         try {
-            return OBJECT_MAPPER.readValue(json, javaType);
+            return objectMapper.readValue(json, javaType);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * @return generator of the current thread, or a new one if it is in use by an outer call on this thread, such as a
+     * custom serializer logging something itself
+     */
+    @Nonnull
+    private JsonOutput acquireOutput() {
+        JsonOutput output = jsonOutputs.get();
+        if (output == null) {
+            output = new JsonOutput(objectMapper);
+            jsonOutputs.set(output);
+        } else if (output.inUse) {
+            output = new JsonOutput(objectMapper);
+        }
+        return output;
+    }
+
+    /**
+     * Drops given generator after a failure, as its state is undefined then and it can't be reused.
+     */
+    private void discardOutput(@Nonnull JsonOutput output) {
+        if (jsonOutputs.get() == output) {
+            jsonOutputs.remove();
+        }
+    }
+
+    @Nonnull
+    private ObjectWriter getObjectWriter(@Nonnull Class<?> type) {
+        Serializers serializers = this.serializers;
+        ObjectWriter objectWriter = serializers.objectWriters.get(type);
+        if (objectWriter == null) {
+            // writer resolves the serializer of the type up front, so it is resolved once per type instead of per call.
+            objectWriter = serializers.objectMapper.writerFor(type);
+            if (serializers.objectWriters.size() < MAX_CACHED_WRITERS) {
+                serializers.objectWriters.putIfAbsent(type, objectWriter);
+            }
+        }
+        return objectWriter;
+    }
+
+    private static class Serializers {
+
+        @Nonnull
+        private final ObjectMapper objectMapper;
+
+        @Nonnull
+        private final ConcurrentMap<Class<?>, ObjectWriter> objectWriters = new ConcurrentHashMap<>();
+
+        @Nullable
+        private final Predicate<String> scrubbedProperty;
+
+        @Nullable
+        private final String scrubbedValue;
+
+        private Serializers(@Nonnull ObjectMapper objectMapper) {
+            this(objectMapper, null, null);
+        }
+
+        private Serializers(
+                @Nonnull ObjectMapper objectMapper,
+                @Nullable Predicate<String> scrubbedProperty,
+                @Nullable String scrubbedValue) {
+            this.objectMapper = objectMapper;
+            this.scrubbedProperty = scrubbedProperty;
+            this.scrubbedValue = scrubbedValue;
+        }
+    }
+
+    /**
+     * Replaces writers of scrubbed bean properties while Jackson builds a bean serializer.
+     */
+    private static class ScrubbingSerializerModifier extends BeanSerializerModifier {
+
+        @Nonnull
+        private final Predicate<String> scrubbedProperty;
+
+        @Nonnull
+        private final String scrubbedValue;
+
+        private ScrubbingSerializerModifier(
+                @Nonnull Predicate<String> scrubbedProperty,
+                @Nonnull String scrubbedValue) {
+            this.scrubbedProperty = scrubbedProperty;
+            this.scrubbedValue = scrubbedValue;
+        }
+
+        @Override
+        public List<BeanPropertyWriter> changeProperties(
+                SerializationConfig config,
+                BeanDescription beanDesc,
+                List<BeanPropertyWriter> beanProperties) {
+            for (int i = 0; i < beanProperties.size(); ++i) {
+                BeanPropertyWriter property = beanProperties.get(i);
+                // annotations of field and getter of a property are merged, so either can be annotated.
+                if (property.getAnnotation(Sensitive.class) != null || scrubbedProperty.test(property.getName())) {
+                    beanProperties.set(i, new ScrubbedPropertyWriter(property, scrubbedValue));
+                }
+            }
+            return beanProperties;
+        }
+
+        @Override
+        public JsonSerializer<?> modifyMapSerializer(
+                SerializationConfig config,
+                MapType valueType,
+                BeanDescription beanDesc,
+                JsonSerializer<?> serializer) {
+            // keys are only known while serializing, so entries are passed through a filter which checks each key.
+            // Subclasses of the map serializer can't be copied with a filter.
+            return serializer.getClass() == MapSerializer.class
+                    ? ((MapSerializer)serializer).withFilterId(SCRUBBING_FILTER_ID)
+                    : serializer;
+        }
+    }
+
+    /**
+     * Writes a fixed value in place of the actual value of map entries with scrubbed keys.
+     */
+    private static class ScrubbingMapEntryFilter extends SimpleBeanPropertyFilter {
+
+        @Nonnull
+        private final Predicate<String> scrubbedProperty;
+
+        @Nonnull
+        private final String scrubbedValue;
+
+        private ScrubbingMapEntryFilter(@Nonnull Predicate<String> scrubbedProperty, @Nonnull String scrubbedValue) {
+            this.scrubbedProperty = scrubbedProperty;
+            this.scrubbedValue = scrubbedValue;
+        }
+
+        @Override
+        public void serializeAsField(
+                Object pojo,
+                JsonGenerator generator,
+                SerializerProvider provider,
+                PropertyWriter writer) throws Exception {
+            // name of a map entry is its key as a string
+            if (scrubbedProperty.test(writer.getName())) {
+                generator.writeFieldName(writer.getName());
+                generator.writeString(scrubbedValue);
+            } else {
+                writer.serializeAsField(pojo, generator, provider);
+            }
+        }
+    }
+
+    /**
+     * Provides the map entry filter, and any filter of the supplied mapper by its own id.
+     */
+    private static class ScrubbingFilterProvider extends FilterProvider {
+
+        @Nullable
+        private final FilterProvider filterProvider;
+
+        @Nonnull
+        private final PropertyFilter scrubbingFilter;
+
+        private ScrubbingFilterProvider(
+                @Nullable FilterProvider filterProvider,
+                @Nonnull PropertyFilter scrubbingFilter) {
+            this.filterProvider = filterProvider;
+            this.scrubbingFilter = scrubbingFilter;
+        }
+
+        @Override
+        @Deprecated
+        public BeanPropertyFilter findFilter(Object filterId) {
+            throw new UnsupportedOperationException("Access to deprecated filters not supported");
+        }
+
+        @Override
+        public PropertyFilter findPropertyFilter(Object filterId, Object valueToFilter) {
+            if (SCRUBBING_FILTER_ID.equals(filterId)) {
+                return scrubbingFilter;
+            }
+            return filterProvider == null ? null : filterProvider.findPropertyFilter(filterId, valueToFilter);
+        }
+    }
+
+    /**
+     * Writes a fixed value in place of the actual property value, without ever reading the property.
+     */
+    private static class ScrubbedPropertyWriter extends BeanPropertyWriter {
+
+        @Nonnull
+        private final String scrubbedValue;
+
+        private ScrubbedPropertyWriter(@Nonnull BeanPropertyWriter base, @Nonnull String scrubbedValue) {
+            super(base);
+            this.scrubbedValue = scrubbedValue;
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeFieldName(_name);
+            generator.writeString(scrubbedValue);
+        }
+
+        @Override
+        public void serializeAsElement(Object bean, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeString(scrubbedValue);
+        }
+    }
+
+    /**
+     * Per-thread generator writing into whichever {@link StringBuilder} is currently set as target.
+     */
+    private static class JsonOutput {
+
+        @Nonnull
+        private final StringBuilderWriter writer = new StringBuilderWriter();
+
+        @Nonnull
+        private final JsonGenerator generator;
+
+        private boolean inUse;
+
+        private JsonOutput(@Nonnull ObjectMapper objectMapper) {
+            try {
+                generator = objectMapper.getFactory().createGenerator(writer);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            // generator is reused for many root level values, which must not be separated in output.
+            generator.setRootValueSeparator(null);
+        }
+    }
+
+    /**
+     * Writer appending to a {@link StringBuilder}, optionally aborting the write with {@link PayloadTooLargeException}
+     * once the configured size limit is reached.
+     */
+    private static class StringBuilderWriter extends Writer {
+
+        @Nullable
+        private StringBuilder target;
+
+        private int maxChars;
+
+        private int maxBytes;
+
+        private int charCount;
+
+        private int byteCount;
+
+        private boolean truncated;
+
+        private void reset(@Nullable StringBuilder target, int maxChars, int maxBytes) {
+            this.target = target;
+            this.maxChars = maxChars;
+            this.maxBytes = maxBytes;
+            this.charCount = 0;
+            this.byteCount = 0;
+            this.truncated = false;
+        }
+
+        private boolean isLimited() {
+            return maxChars > 0 || maxBytes > 0;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            write(new char[]{(char)c}, 0, 1);
+        }
+
+        @Override
+        public void write(@Nonnull char[] chars, int offset, int length) throws IOException {
+            if (!isLimited()) {
+                target.append(chars, offset, length);
+                return;
+            }
+
+            int count = 0;
+            while (count < length) {
+                int charBytes = utf8Length(chars[offset + count]);
+                if ((maxChars > 0 && charCount >= maxChars) || (maxBytes > 0 && byteCount + charBytes > maxBytes)) {
+                    break;
+                }
+                ++charCount;
+                byteCount += charBytes;
+                ++count;
+            }
+
+            // don't leave half of a surrogate pair at the cut
+            if (count < length && count > 0 && Character.isHighSurrogate(chars[offset + count - 1])) {
+                --count;
+                --charCount;
+                byteCount -= 2;
+            }
+
+            target.append(chars, offset, count);
+
+            if (count < length) {
+                truncated = true;
+                throw new PayloadTooLargeException();
+            }
+        }
+
+        @Override
+        public void write(@Nonnull String string, int offset, int length) throws IOException {
+            if (isLimited()) {
+                // copies into a char array, and ends up in the size checking write above.
+                super.write(string, offset, length);
+            } else {
+                target.append(string, offset, offset + length);
+            }
+        }
+
+        @Override
+        public void flush() {
+            // no-op
+        }
+
+        @Override
+        public void close() {
+            // no-op
+        }
+
+        private static int utf8Length(char c) {
+            if (c < 0x80) {
+                return 1;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                // each half of a surrogate pair accounts for half of the 4 bytes of the encoded pair
+                return 2;
+            }
+            return 3;
+        }
+    }
+
+    /**
+     * Thrown from within the generator to stop serializing once the size limit has been reached. It is never seen
+     * outside this class, so it carries no stack trace.
+     */
+    private static class PayloadTooLargeException extends IOException {
+
+        private PayloadTooLargeException() {
+            super("Payload size limit reached");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
 }
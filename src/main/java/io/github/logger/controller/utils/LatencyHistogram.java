@@ -0,0 +1,165 @@
+package io.github.logger.controller.utils;
+
+import io.github.logger.controller.bean.LatencySnapshot;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram over a rolling time window.
+ *
+ * <p>Buckets are log-linear as in HDR histograms: each power of two range of values is split into
+ * {@value #SUB_BUCKET_HALF_COUNT} equally wide buckets, so any recorded value is off by less than 1/32 (~3%) of
+ * itself. Values up to 2^40 ns (about 18 minutes) are distinguished, longer ones fall in the last bucket.
+ *
+ * <p>The window is split into slices. Recording only touches the current slice, and a slice is cleared when it gets
+ * reused for a new time period. A value recorded by another thread exactly while a slice is being cleared may be lost,
+ * which is an accepted trade-off for never blocking the recording threads.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final int SUB_BUCKET_HALF_BITS = SUB_BUCKET_BITS - 1;
+
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_BITS;
+
+    private static final int MAX_VALUE_BITS = 40;
+
+    private static final long MAX_TRACKABLE_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_VALUE) + 1;
+
+    private final long sliceNanos;
+
+    @Nonnull
+    private final Slice[] slices;
+
+    public LatencyHistogram(long window, @Nonnull TimeUnit unit, int sliceCount) {
+        if (window <= 0 || sliceCount < 1) {
+            throw new IllegalArgumentException("Window and slice count must be positive");
+        }
+
+        this.sliceNanos = Math.max(1, unit.toNanos(window) / sliceCount);
+        this.slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; ++i) {
+            slices[i] = new Slice();
+        }
+    }
+
+    /**
+     * Records a single call.
+     *
+     * @param durationNanos call duration in nanoseconds
+     * @param error true if the call threw an exception
+     */
+    public void record(long durationNanos, boolean error) {
+        long epoch = Math.floorDiv(System.nanoTime(), sliceNanos);
+        Slice slice = slices[(int)Math.floorMod(epoch, (long)slices.length)];
+
+        long sliceEpoch = slice.epoch.get();
+        if (sliceEpoch < epoch && slice.epoch.compareAndSet(sliceEpoch, epoch)) {
+            slice.clear();
+        }
+
+        long value = Math.max(0, durationNanos);
+        slice.counts.incrementAndGet(indexOf(Math.min(value, MAX_TRACKABLE_VALUE)));
+        if (error) {
+            slice.errors.incrementAndGet();
+        }
+
+        long max = slice.max.get();
+        while (value > max && !slice.max.compareAndSet(max, value)) {
+            max = slice.max.get();
+        }
+    }
+
+    /**
+     * @return statistics of calls recorded within the window
+     */
+    @Nonnull
+    public LatencySnapshot snapshot() {
+        long currentEpoch = Math.floorDiv(System.nanoTime(), sliceNanos);
+        long counts[] = new long[BUCKET_COUNT];
+        long count = 0;
+        long errors = 0;
+        long max = 0;
+
+        for (Slice slice : slices) {
+            long sliceEpoch = slice.epoch.get();
+            if (sliceEpoch > currentEpoch - slices.length && sliceEpoch <= currentEpoch) {
+                for (int i = 0; i < BUCKET_COUNT; ++i) {
+                    long bucketCount = slice.counts.get(i);
+                    counts[i] += bucketCount;
+                    count += bucketCount;
+                }
+                errors += slice.errors.get();
+                max = Math.max(max, slice.max.get());
+            }
+        }
+
+        return new LatencySnapshot(
+                sliceNanos * slices.length,
+                count,
+                errors,
+                valueAtPercentile(counts, count, 50.0, max),
+                valueAtPercentile(counts, count, 90.0, max),
+                valueAtPercentile(counts, count, 99.0, max),
+                valueAtPercentile(counts, count, 99.9, max),
+                max
+        );
+    }
+
+    private static long valueAtPercentile(@Nonnull long[] counts, long totalCount, double percentile, long max) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long countAtPercentile = Math.max(1, (long)Math.ceil(percentile / 100 * totalCount));
+        long runningCount = 0;
+        for (int i = 0; i < counts.length; ++i) {
+            runningCount += counts[i];
+            if (runningCount >= countAtPercentile) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int indexOf(long value) {
+        // position of the power of two range, 0 for values below SUB_BUCKET_HALF_COUNT * 2
+        int bucket = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (bucket << SUB_BUCKET_HALF_BITS) + (int)(value >>> bucket);
+    }
+
+    private static long highestValueAt(int index) {
+        int bucket = Math.max(0, (index >> SUB_BUCKET_HALF_BITS) - 1);
+        long subBucket = index - ((long)bucket << SUB_BUCKET_HALF_BITS);
+        return ((subBucket + 1) << bucket) - 1;
+    }
+
+    private static class Slice {
+
+        @Nonnull
+        private final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+
+        @Nonnull
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+        @Nonnull
+        private final AtomicLong errors = new AtomicLong();
+
+        @Nonnull
+        private final AtomicLong max = new AtomicLong();
+
+        private void clear() {
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                counts.set(i, 0);
+            }
+            errors.set(0);
+            max.set(0);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.logger.controller.utils;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Recycles the buffers log messages are built in, one per thread, so that building a message allocates nothing but
+ * the resulting string.
+ *
+ * <p>A buffer is taken with {@link #acquire(int)} and must be handed back with {@link #release(StringBuilder)}, which
+ * returns the built message. Re-entrant use on the same thread, such as a {@code toString()} which itself triggers
+ * logging, gets a fresh buffer instead of the one in use. Buffers which grew beyond {@link #MAX_RETAINED_CAPACITY}
+ * are not kept, so a single huge message doesn't pin its memory to the thread forever.
+ */
+public class MessageBuffers {
+
+    public static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final ThreadLocal<StringBuilder> buffers = new ThreadLocal<>();
+
+    /**
+     * @param expectedLength expected length of the message, such as the length of the previous message of the same
+     *            kind. The buffer is grown to this capacity at once instead of step by step while appending.
+     * @return an empty buffer owned by the caller until it is released
+     */
+    @Nonnull
+    public StringBuilder acquire(int expectedLength) {
+        int capacity = Math.min(expectedLength, MAX_RETAINED_CAPACITY);
+
+        StringBuilder buffer = buffers.get();
+        if (buffer == null) {
+            return new StringBuilder(Math.max(INITIAL_CAPACITY, capacity));
+        }
+
+        // the buffer is taken out, so a re-entrant acquire on this thread doesn't get it as well.
+        buffers.set(null);
+        buffer.setLength(0);
+        buffer.ensureCapacity(capacity);
+        return buffer;
+    }
+
+    /**
+     * @param buffer a buffer obtained from {@link #acquire(int)} on the current thread
+     * @return content of the buffer
+     */
+    @Nonnull
+    public String release(@Nonnull StringBuilder buffer) {
+        String message = buffer.toString();
+        if (buffer.capacity() <= MAX_RETAINED_CAPACITY) {
+            buffers.set(buffer);
+        }
+        return message;
+    }
+}
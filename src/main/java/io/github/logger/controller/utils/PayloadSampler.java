@@ -0,0 +1,122 @@
+package io.github.logger.controller.utils;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether arguments and returned value of a call are logged. Execution time is logged for every call regardless
+ * of sampling.
+ *
+ * <p>All implementations are lock-free as they are consulted by every request thread.
+ */
+public abstract class PayloadSampler {
+
+    private static final PayloadSampler ALWAYS = new PayloadSampler() {
+        @Override
+        public boolean sample() {
+            return true;
+        }
+    };
+
+    private static final PayloadSampler NEVER = new PayloadSampler() {
+        @Override
+        public boolean sample() {
+            return false;
+        }
+    };
+
+    /**
+     * @return true if payload of current call should be logged
+     */
+    public abstract boolean sample();
+
+    /**
+     * @return sampler logging payload of every call
+     */
+    @Nonnull
+    public static PayloadSampler always() {
+        return ALWAYS;
+    }
+
+    /**
+     * @param rate fraction of calls to log payload of, between 0 and 1
+     * @return sampler logging payload of given fraction of calls, picked randomly
+     */
+    @Nonnull
+    public static PayloadSampler fixedRate(double rate) {
+        if (rate >= 1) {
+            return ALWAYS;
+        } else if (rate <= 0) {
+            return NEVER;
+        }
+        return new FixedRateSampler(rate);
+    }
+
+    /**
+     * @param permitsPerSecond maximum number of calls per second to log payload of
+     * @return sampler logging payload of at most given number of calls per second, allowing a burst of up to one
+     * second's worth of calls
+     */
+    @Nonnull
+    public static PayloadSampler perSecond(int permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            return NEVER;
+        }
+        return new TokenBucketSampler(permitsPerSecond);
+    }
+
+    private static class FixedRateSampler extends PayloadSampler {
+
+        private final double rate;
+
+        private FixedRateSampler(double rate) {
+            this.rate = rate;
+        }
+
+        @Override
+        public boolean sample() {
+            return ThreadLocalRandom.current().nextDouble() < rate;
+        }
+    }
+
+    /**
+     * Token bucket implemented as a generic cell rate algorithm, so the whole bucket state is a single timestamp updated
+     * by compare-and-set: the theoretical time at which the bucket would be full again.
+     */
+    private static class TokenBucketSampler extends PayloadSampler {
+
+        private final long permitIntervalNanos;
+
+        private final long burstNanos;
+
+        @Nonnull
+        private final AtomicLong fullAtNanos;
+
+        private TokenBucketSampler(int permitsPerSecond) {
+            this.permitIntervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+            this.burstNanos = TimeUnit.SECONDS.toNanos(1);
+            this.fullAtNanos = new AtomicLong(System.nanoTime());
+        }
+
+        @Override
+        public boolean sample() {
+            long now = System.nanoTime();
+
+            while (true) {
+                long fullAt = fullAtNanos.get();
+                long start = fullAt - now < 0 ? now : fullAt;
+                long nextFullAt = start + permitIntervalNanos;
+
+                if (nextFullAt - now > burstNanos) {
+                    // bucket is empty
+                    return false;
+                }
+                if (fullAtNanos.compareAndSet(fullAt, nextFullAt)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
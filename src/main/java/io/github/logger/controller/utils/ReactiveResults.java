@@ -0,0 +1,328 @@
+package io.github.logger.controller.utils;
+
+import io.github.logger.controller.bean.ResultKind;
+import io.github.logger.controller.bean.StreamSummary;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Observes completion of reactive results without blocking and without buffering their elements.
+ *
+ * <p>Reactor types are observed through Reactor operators, so the subscriber {@code Context}, which carries the
+ * reactive security context or tracing data, still reaches everything upstream, and operator fusion still applies.
+ *
+ * <p>Both Reactive Streams and Reactor are optional dependencies. Types of a missing library are never matched, and
+ * the classes referring to them are never loaded.
+ */
+public final class ReactiveResults {
+
+    private static final boolean reactiveStreamsPresent =
+            ClassUtils.isPresent("org.reactivestreams.Publisher", ReactiveResults.class.getClassLoader());
+
+    private static final boolean reactorPresent =
+            ClassUtils.isPresent("reactor.core.publisher.Flux", ReactiveResults.class.getClassLoader());
+
+    private ReactiveResults() {
+        // utility class
+    }
+
+    /**
+     * Only {@code Mono}, {@code Flux} and {@code Publisher} themselves are matched. Results of their subtypes, such as
+     * a {@code ParallelFlux} or an RxJava {@code Flowable}, can't be replaced by a wrapper of another class without
+     * breaking the declared return type, so they are logged on return like plain results.
+     *
+     * @param returnType declared return type of a controller method
+     * @return kind of reactive result, or {@link ResultKind#PLAIN} if the type is not reactive or can't be wrapped
+     */
+    @Nonnull
+    public static ResultKind getResultKind(@Nonnull Class<?> returnType) {
+        if (reactorPresent && ReactorTypes.isMono(returnType)) {
+            return ResultKind.MONO;
+        } else if (reactorPresent && ReactorTypes.isFlux(returnType)) {
+            return ResultKind.FLUX;
+        } else if (reactiveStreamsPresent && ReactiveStreamsTypes.isPublisher(returnType)) {
+            return ResultKind.PUBLISHER;
+        }
+        return ResultKind.PLAIN;
+    }
+
+    /**
+     * Wraps a reactive result so that given listener is notified when a subscription to it completes, fails or is
+     * cancelled. A {@code Mono} completes with its value, streams complete with a {@link StreamSummary}. The returned
+     * object is of the same reactive type as the result.
+     *
+     * @param result the publisher returned by a controller method
+     * @param kind kind of the result, as returned by {@link #getResultKind(Class)}
+     * @param startNanos {@link System#nanoTime()} when the call started, to measure time to first element
+     * @param listener the listener notified once per subscription
+     * @return the wrapped result
+     */
+    @Nonnull
+    public static Object decorate(
+            @Nonnull Object result,
+            @Nonnull ResultKind kind,
+            long startNanos,
+            @Nonnull CompletionListener listener) {
+        switch (kind) {
+            case MONO:
+                return ReactorTypes.decorateMono(result, startNanos, listener);
+            case FLUX:
+                return ReactorTypes.decorateFlux(result, startNanos, listener);
+            case PUBLISHER:
+                // Reactor types declared as plain publishers still go through Reactor operators, to keep the context.
+                if (reactorPresent && ReactorTypes.isMonoInstance(result)) {
+                    return ReactorTypes.decorateMono(result, startNanos, listener);
+                } else if (reactorPresent && ReactorTypes.isFluxInstance(result)) {
+                    return ReactorTypes.decorateFlux(result, startNanos, listener);
+                }
+                return ReactiveStreamsTypes.decoratePublisher(result, startNanos, listener);
+            default:
+                throw new IllegalArgumentException("Not a reactive result kind: " + kind);
+        }
+    }
+
+    /**
+     * Counts size of binary and text elements. Other elements are encoded by the framework after they are emitted, so
+     * their size is unknown here and counted as 0.
+     */
+    static long sizeOf(@Nullable Object element) {
+        if (element instanceof byte[]) {
+            return ((byte[])element).length;
+        } else if (element instanceof ByteBuffer) {
+            return ((ByteBuffer)element).remaining();
+        } else if (element instanceof CharSequence) {
+            return ((CharSequence)element).length();
+        }
+        return 0;
+    }
+
+    private static class ReactiveStreamsTypes {
+
+        static boolean isPublisher(@Nonnull Class<?> type) {
+            return type == Publisher.class;
+        }
+
+        @Nonnull
+        @SuppressWarnings("unchecked")
+        static Publisher<?> decoratePublisher(
+                @Nonnull Object publisher,
+                long startNanos,
+                @Nonnull CompletionListener listener) {
+            return new ObservedPublisher<>((Publisher<Object>)publisher, startNanos, listener);
+        }
+    }
+
+    private static class ReactorTypes {
+
+        static boolean isMono(@Nonnull Class<?> type) {
+            return type == Mono.class;
+        }
+
+        static boolean isFlux(@Nonnull Class<?> type) {
+            return type == Flux.class;
+        }
+
+        static boolean isMonoInstance(@Nonnull Object result) {
+            return result instanceof Mono;
+        }
+
+        static boolean isFluxInstance(@Nonnull Object result) {
+            return result instanceof Flux;
+        }
+
+        @Nonnull
+        @SuppressWarnings("unchecked")
+        static Mono<?> decorateMono(@Nonnull Object mono, long startNanos, @Nonnull CompletionListener listener) {
+            Mono<Object> source = (Mono<Object>)mono;
+            // deferred, so each subscription is observed on its own.
+            return Mono.defer(() -> {
+                Observation observation = new Observation(true, startNanos, listener);
+                return source
+                        .doOnSuccess(observation::onSuccess)
+                        .doOnError(observation::onError)
+                        .doOnCancel(observation::onCancel);
+            });
+        }
+
+        @Nonnull
+        @SuppressWarnings("unchecked")
+        static Flux<?> decorateFlux(@Nonnull Object flux, long startNanos, @Nonnull CompletionListener listener) {
+            Flux<Object> source = (Flux<Object>)flux;
+            return Flux.defer(() -> {
+                Observation observation = new Observation(false, startNanos, listener);
+                return source
+                        .doOnNext(observation::onNext)
+                        .doOnError(observation::onError)
+                        .doOnComplete(observation::onComplete)
+                        .doOnCancel(observation::onCancel);
+            });
+        }
+    }
+
+    private static class ObservedPublisher<T> implements Publisher<T> {
+
+        @Nonnull
+        private final Publisher<T> source;
+
+        private final long startNanos;
+
+        @Nonnull
+        private final CompletionListener listener;
+
+        ObservedPublisher(@Nonnull Publisher<T> source, long startNanos, @Nonnull CompletionListener listener) {
+            this.source = source;
+            this.startNanos = startNanos;
+            this.listener = listener;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super T> subscriber) {
+            source.subscribe(new ObservingSubscriber<>(subscriber, new Observation(false, startNanos, listener)));
+        }
+    }
+
+    /**
+     * Passes every signal of a plain Reactive Streams publisher through unchanged, observing it on the way.
+     */
+    private static class ObservingSubscriber<T> implements Subscriber<T>, Subscription {
+
+        @Nonnull
+        private final Subscriber<? super T> actual;
+
+        @Nonnull
+        private final Observation observation;
+
+        private Subscription upstream;
+
+        ObservingSubscriber(@Nonnull Subscriber<? super T> actual, @Nonnull Observation observation) {
+            this.actual = actual;
+            this.observation = observation;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            upstream = subscription;
+            actual.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T element) {
+            observation.onNext(element);
+            actual.onNext(element);
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            try {
+                actual.onError(failure);
+            } finally {
+                observation.onError(failure);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                actual.onComplete();
+            } finally {
+                observation.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+            observation.onCancel();
+        }
+    }
+
+    /**
+     * Counts elements of a single subscription and notifies the listener once it terminates. Signals are serialized by
+     * the Reactive Streams contract, only cancellation may race with them.
+     */
+    private static class Observation {
+
+        private final boolean single;
+
+        private final long startNanos;
+
+        @Nonnull
+        private final CompletionListener listener;
+
+        @Nonnull
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private long elementCount;
+
+        private long byteCount;
+
+        private long timeToFirstElementNanos = -1;
+
+        @Nullable
+        private Object value;
+
+        Observation(boolean single, long startNanos, @Nonnull CompletionListener listener) {
+            this.single = single;
+            this.startNanos = startNanos;
+            this.listener = listener;
+        }
+
+        void onNext(@Nullable Object element) {
+            if (elementCount++ == 0) {
+                timeToFirstElementNanos = System.nanoTime() - startNanos;
+            }
+            if (single) {
+                value = element;
+            } else {
+                byteCount += sizeOf(element);
+            }
+        }
+
+        /**
+         * Completion of a {@code Mono}, with its value or null if it completed empty.
+         */
+        void onSuccess(@Nullable Object element) {
+            if (element != null) {
+                onNext(element);
+            }
+            onComplete();
+        }
+
+        void onError(@Nonnull Throwable failure) {
+            complete(null, failure);
+        }
+
+        void onComplete() {
+            complete(single ? value : summary(false), null);
+        }
+
+        void onCancel() {
+            complete(single && elementCount > 0 ? value : summary(true), null);
+        }
+
+        @Nonnull
+        private StreamSummary summary(boolean cancelled) {
+            return new StreamSummary(elementCount, byteCount, timeToFirstElementNanos, cancelled);
+        }
+
+        private void complete(@Nullable Object result, @Nullable Throwable failure) {
+            if (completed.compareAndSet(false, true)) {
+                listener.onCompletion(result, failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.logger.controller.utils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Renders values which are not serialized to JSON, such as request parameters and results of non-JSON endpoints, into
+ * a log message.
+ *
+ * <p>Unlike {@code toString()}, output is bounded: collections, maps and arrays are cut after a number of elements and
+ * beyond a nesting depth, and strings are cut after a number of characters. Arrays of objects are rendered element-wise
+ * and arrays of primitives as their length and a hash of their content. Values are appended straight to the target
+ * buffer, so strings, numbers and containers are rendered without intermediate strings.
+ */
+public class ValueRenderer {
+
+    private final int maxElements;
+
+    private final int maxDepth;
+
+    private final int maxChars;
+
+    /**
+     * @param maxElements maximum number of rendered elements of a collection, map or array, 0 for no limit
+     * @param maxDepth maximum nesting depth of rendered collections, maps and arrays, 0 for no limit
+     * @param maxChars maximum number of rendered characters of a single string or other value, 0 for no limit
+     */
+    public ValueRenderer(int maxElements, int maxDepth, int maxChars) {
+        this.maxElements = maxElements > 0 ? maxElements : Integer.MAX_VALUE;
+        this.maxDepth = maxDepth > 0 ? maxDepth : Integer.MAX_VALUE;
+        this.maxChars = maxChars > 0 ? maxChars : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Appends a bounded representation of given value to the target.
+     *
+     * @param value the value to render
+     * @param target the buffer to append to
+     */
+    public void render(@Nullable Object value, @Nonnull StringBuilder target) {
+        render(value, target, 0);
+    }
+
+    private void render(@Nullable Object value, @Nonnull StringBuilder target, int depth) {
+        if (value == null) {
+            target.append("null");
+        } else if (value instanceof CharSequence) {
+            appendCapped((CharSequence)value, target);
+        } else if (value instanceof Integer) {
+            target.append((int)value);
+        } else if (value instanceof Long) {
+            target.append((long)value);
+        } else if (value instanceof Boolean) {
+            target.append((boolean)value);
+        } else if (value instanceof Collection) {
+            renderCollection((Collection<?>)value, target, depth);
+        } else if (value instanceof Map) {
+            renderMap((Map<?, ?>)value, target, depth);
+        } else if (value.getClass().isArray()) {
+            renderArray(value, target, depth);
+        } else {
+            appendCapped(String.valueOf(value), target);
+        }
+    }
+
+    private void renderCollection(@Nonnull Collection<?> collection, @Nonnull StringBuilder target, int depth) {
+        if (depth >= maxDepth) {
+            target.append("[...]");
+            return;
+        }
+
+        target.append('[');
+        int count = 0;
+        for (Iterator<?> iterator = collection.iterator(); iterator.hasNext() && count < maxElements; ++count) {
+            Object element = iterator.next();
+            target.append(count == 0 ? "" : ", ");
+            if (element == collection) {
+                target.append("(this Collection)");
+            } else {
+                render(element, target, depth + 1);
+            }
+        }
+        appendRemaining(collection.size() - count, target);
+        target.append(']');
+    }
+
+    private void renderMap(@Nonnull Map<?, ?> map, @Nonnull StringBuilder target, int depth) {
+        if (depth >= maxDepth) {
+            target.append("{...}");
+            return;
+        }
+
+        target.append('{');
+        int count = 0;
+        for (Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+             iterator.hasNext() && count < maxElements; ++count) {
+            Map.Entry<?, ?> entry = iterator.next();
+            target.append(count == 0 ? "" : ", ");
+            render(entry.getKey() == map ? "(this Map)" : entry.getKey(), target, depth + 1);
+            target.append('=');
+            render(entry.getValue() == map ? "(this Map)" : entry.getValue(), target, depth + 1);
+        }
+        appendRemaining(map.size() - count, target);
+        target.append('}');
+    }
+
+    private void renderArray(@Nonnull Object array, @Nonnull StringBuilder target, int depth) {
+        Class<?> componentType = array.getClass().getComponentType();
+        int length = Array.getLength(array);
+
+        if (componentType.isPrimitive()) {
+            // content of primitive arrays, such as file contents, is rarely readable. Length and hash still tell
+            // whether two of them are the same.
+            target.append(componentType.getName()).append('[').append(length).append(']')
+                    .append('#').append(Integer.toHexString(primitiveArrayHash(array)));
+            return;
+        }
+
+        if (depth >= maxDepth) {
+            target.append("[...]");
+            return;
+        }
+
+        Object elements[] = (Object[])array;
+        int count = Math.min(length, maxElements);
+        target.append('[');
+        for (int i = 0; i < count; ++i) {
+            target.append(i == 0 ? "" : ", ");
+            render(elements[i], target, depth + 1);
+        }
+        appendRemaining(length - count, target);
+        target.append(']');
+    }
+
+    private void appendCapped(@Nonnull CharSequence value, @Nonnull StringBuilder target) {
+        int length = value.length();
+        if (length <= maxChars) {
+            target.append(value);
+            return;
+        }
+
+        int end = maxChars;
+        // don't leave half of a surrogate pair at the cut
+        if (Character.isHighSurrogate(value.charAt(end - 1))) {
+            --end;
+        }
+        target.append(value, 0, end).append("...[truncated, ").append(length).append(" chars]");
+    }
+
+    private static void appendRemaining(int remaining, @Nonnull StringBuilder target) {
+        if (remaining > 0) {
+            target.append(", ... ").append(remaining).append(" more");
+        }
+    }
+
+    private static int primitiveArrayHash(@Nonnull Object array) {
+        if (array instanceof byte[]) {
+            return Arrays.hashCode((byte[])array);
+        } else if (array instanceof int[]) {
+            return Arrays.hashCode((int[])array);
+        } else if (array instanceof long[]) {
+            return Arrays.hashCode((long[])array);
+        } else if (array instanceof char[]) {
+            return Arrays.hashCode((char[])array);
+        } else if (array instanceof short[]) {
+            return Arrays.hashCode((short[])array);
+        } else if (array instanceof double[]) {
+            return Arrays.hashCode((double[])array);
+        } else if (array instanceof float[]) {
+            return Arrays.hashCode((float[])array);
+        }
+        return Arrays.hashCode((boolean[])array);
+    }
+}
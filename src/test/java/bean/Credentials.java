@@ -0,0 +1,21 @@
+package bean;
+
+import io.github.logger.controller.annotation.Sensitive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import javax.annotation.Nonnull;
+
+@Data
+@AllArgsConstructor
+public class Credentials {
+    @Nonnull
+    private String username;
+
+    @Sensitive
+    @Nonnull
+    private String token;
+
+    public Credentials() {
+    }
+}
@@ -1,13 +1,24 @@
 package helpers;
 
+import bean.Credentials;
 import bean.User;
+import io.github.logger.controller.annotation.Sensitive;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RequestMapping(produces = {MediaType.APPLICATION_JSON_VALUE})
 public class DummyController {
@@ -32,6 +43,11 @@ public class DummyController {
         return user;
     }
 
+    @PostMapping(value = "/updateUser", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public User updateUser(@RequestBody User user) {
+        return user;
+    }
+
     @RequestMapping(value = "/saveNote", consumes = MediaType.TEXT_PLAIN_VALUE)
     @ResponseBody
     public boolean saveNote(@RequestBody String text) {
@@ -71,6 +87,11 @@ public class DummyController {
         // no-op
     }
 
+    @RequestMapping(value = "/savePin")
+    public void savePin(@RequestParam @Sensitive String code) {
+        // no-op
+    }
+
     @RequestMapping(value = "/saveBunchOfSecretStuff")
     public void saveSecretStuff(@RequestParam String secret1, @RequestParam String secret2, @RequestParam String noSecret) {
         // no-op
@@ -85,4 +106,44 @@ public class DummyController {
     public String getNote(@RequestParam String substring) {
         return "Hello, World!";
     }
+
+    @RequestMapping(value = "/getUserReactive")
+    public Mono<User> getUserReactive(@RequestParam int userId) {
+        return Mono.just(new User(1, "foo@example.com", "password"));
+    }
+
+    @RequestMapping(value = "/getUserAsync")
+    public CompletableFuture<User> getUserAsync(@RequestParam int userId) {
+        return CompletableFuture.completedFuture(new User(1, "foo@example.com", "password"));
+    }
+
+    @RequestMapping(value = "/getNotes", produces = MediaType.TEXT_PLAIN_VALUE)
+    public Flux<String> getNotes() {
+        return Flux.just("Hello, ", "World!");
+    }
+
+    @RequestMapping(value = "/createUserEntity", method = RequestMethod.POST)
+    public ResponseEntity<User> createUserEntity(@RequestParam int userId) {
+        return ResponseEntity.status(201)
+                .header(HttpHeaders.LOCATION, "/users/1")
+                .header(HttpHeaders.SET_COOKIE, "session=secret")
+                .body(new User(1, "foo@example.com", "password"));
+    }
+
+    @RequestMapping(value = "/getCredentials")
+    public Credentials getCredentials() {
+        return new Credentials("foo", "token");
+    }
+
+    @RequestMapping(value = "/exportNotes", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportNotes() {
+        StreamingResponseBody body =
+                outputStream -> outputStream.write("Hello, World!".getBytes(StandardCharsets.UTF_8));
+        return ResponseEntity.ok(body);
+    }
+
+    @RequestMapping(value = "/getValues")
+    public List<Object> getValues() {
+        return Collections.singletonList("Hello, World!");
+    }
 }
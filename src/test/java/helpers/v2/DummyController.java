@@ -0,0 +1,21 @@
+package helpers.v2;
+
+import bean.User;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Controller with the same simple name as {@link helpers.DummyController}, as when an API is versioned by package.
+ */
+@RequestMapping(value = "/v2", produces = {MediaType.APPLICATION_JSON_VALUE})
+public class DummyController {
+
+    @RequestMapping(value = "/getUser")
+    @ResponseBody
+    public User getUser(@Nonnull int userId) {
+        return new User(1, "foo@example.com", "password");
+    }
+}
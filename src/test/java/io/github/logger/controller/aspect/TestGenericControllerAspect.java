@@ -1,11 +1,22 @@
 package io.github.logger.controller.aspect;
 
+import bean.Credentials;
 import bean.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.github.valfirst.slf4jtest.TestLogger;
 import com.github.valfirst.slf4jtest.TestLoggerFactory;
 import com.google.common.collect.ImmutableMap;
 import helpers.*;
 import io.github.logger.controller.annotation.Logging;
+import io.github.logger.controller.aspect.integration.spring_boot_application.NoLoggingController;
+import io.github.logger.controller.aspect.integration.spring_boot_application.UserController;
+import io.github.logger.controller.bean.LatencySnapshot;
+import io.github.logger.controller.bean.MethodDescriptor;
+import io.github.logger.controller.capture.ResponseBodyCaptureAdvice;
+import io.github.logger.controller.capture.ResponseBodyCaptureFilter;
+import io.github.logger.controller.utils.AsyncLogDispatcher;
 import io.github.logger.controller.utils.JsonUtil;
 import io.github.logger.controller.utils.RequestUtil;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -16,13 +27,28 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.slf4j.Logger;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static helpers.MockUtils.mockMethodSignature;
 import static helpers.MockUtils.mockProceedingJoinPoint;
@@ -80,7 +106,7 @@ public class TestGenericControllerAspect {
                         "level",
                         "INFO",
                         "message",
-                        "getUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"password\"}]")
+                        "getUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]")
         );
 
         assertEquals(expectedLogMessages, actualLogMessages);
@@ -131,7 +157,7 @@ public class TestGenericControllerAspect {
                         "level",
                         "INFO",
                         "message",
-                        "getUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"password\"}]")
+                        "getUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]")
         );
 
         assertEquals(expectedLogMessages, actualLogMessages);
@@ -277,7 +303,8 @@ public class TestGenericControllerAspect {
         String expectedReturnedValue = "Hello, World!";
         assertEquals(expectedReturnedValue, actualReturnedValue);
 
-        verify(mockedJsonUtil, times(1)).toJson("Hello, World!");
+        verify(mockedJsonUtil, times(1)).toJson(eq("Hello, World!"), any(StringBuilder.class), anyInt(), anyInt());
+        verify(mockedJsonUtil, atLeastOnce()).setPropertyScrubbing(any(), anyString());
         verifyNoMoreInteractions(mockedJsonUtil);
 
         resetMock(mockedObjects);
@@ -345,7 +372,7 @@ public class TestGenericControllerAspect {
                         "INFO",
                         "message",
                         "createUser() called with arguments: user: " +
-                                "[{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"password\"}]" +
+                                "[{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]" +
                                 ", source: [homePage] " +
                                 "called via url: [https://www.example.com], username: [Jean-Luc Picard]")
         );
@@ -363,7 +390,7 @@ public class TestGenericControllerAspect {
                         "level",
                         "INFO",
                         "message",
-                        "createUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"password\"}]")
+                        "createUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]")
         );
 
         assertEquals(expectedLogMessages, actualLogMessages);
@@ -372,7 +399,8 @@ public class TestGenericControllerAspect {
         assertEquals(expectedReturnedValue, actualReturnedValue);
 
         // once for input and once for output user object
-        verify(mockedJsonUtil, times(2)).toJson(user);
+        verify(mockedJsonUtil, times(2)).toJson(eq(user), any(StringBuilder.class), anyInt(), anyInt());
+        verify(mockedJsonUtil, atLeastOnce()).setPropertyScrubbing(any(), anyString());
         verifyNoMoreInteractions(mockedJsonUtil);
 
         resetMock(mockedObjects);
@@ -463,7 +491,8 @@ public class TestGenericControllerAspect {
         assertEquals(true, actualReturnedValue);
 
         // once for input and once for output user object
-        verify(mockedJsonUtil, times(1)).toJson(true);
+        verify(mockedJsonUtil, times(1)).toJson(eq(true), any(StringBuilder.class), anyInt(), anyInt());
+        verify(mockedJsonUtil, atLeastOnce()).setPropertyScrubbing(any(), anyString());
         verifyNoMoreInteractions(mockedJsonUtil);
 
         resetMock(mockedObjects);
@@ -527,7 +556,7 @@ public class TestGenericControllerAspect {
                         "level",
                         "INFO",
                         "message",
-                        "createUser() called with arguments: user: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"password\"}]," +
+                        "createUser() called with arguments: user: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]," +
                                 " source: [null]" +
                                 " called via" +
                                 " url: [https://www.example.com], username: [Jean-Luc Picard]")
@@ -546,7 +575,7 @@ public class TestGenericControllerAspect {
                         "level",
                         "INFO",
                         "message",
-                        "createUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"password\"}]")
+                        "createUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]")
         );
 
         assertEquals(expectedLogMessages, actualLogMessages);
@@ -554,7 +583,14 @@ public class TestGenericControllerAspect {
         User expectedReturnedValue = new User(1, "foobar@example.com", "password");
         assertEquals(expectedReturnedValue, actualReturnedValue);
 
-        verify(mockedJsonUtil, times(2)).toJson(new User(1, "foobar@example.com", "password"));
+        verify(mockedJsonUtil, times(2))
+                .toJson(
+                        eq(new User(1, "foobar@example.com", "password")),
+                        any(StringBuilder.class),
+                        anyInt(),
+                        anyInt()
+                );
+        verify(mockedJsonUtil, atLeastOnce()).setPropertyScrubbing(any(), anyString());
         verifyNoMoreInteractions(mockedJsonUtil);
 
         resetMock(mockedObjects);
@@ -644,7 +680,8 @@ public class TestGenericControllerAspect {
         assertNull(actualReturnedValue);
 
         // once for input user arg and once for output
-        verify(mockedJsonUtil, times(2)).toJson(null);
+        verify(mockedJsonUtil, times(2)).toJson(isNull(), any(StringBuilder.class), anyInt(), anyInt());
+        verify(mockedJsonUtil, atLeastOnce()).setPropertyScrubbing(any(), anyString());
         verifyNoMoreInteractions(mockedJsonUtil);
 
         resetMock(mockedObjects);
@@ -733,6 +770,7 @@ public class TestGenericControllerAspect {
         assertEquals(expectedLogMessages, actualLogMessages);
         assertNull(actualReturnedValue);
 
+        verify(mockedJsonUtil, atLeastOnce()).setPropertyScrubbing(any(), anyString());
         verifyNoMoreInteractions(mockedJsonUtil);
 
         resetMock(mockedObjects);
@@ -749,7 +787,8 @@ public class TestGenericControllerAspect {
 
         JsonUtil mockedJsonUtil = mock(JsonUtil.class);
         mockedObjects.add(mockedJsonUtil);
-        when(mockedJsonUtil.toJson(any(User.class))).thenThrow(new RuntimeException("Intentionally thrown error"));
+        doThrow(new RuntimeException("Intentionally thrown error"))
+                .when(mockedJsonUtil).toJson(any(User.class), any(StringBuilder.class), anyInt(), anyInt());
 
         GenericControllerAspect aspect = new GenericControllerAspect(logger, mockedJsonUtil, mockedRequestUtil);
 
@@ -791,7 +830,7 @@ public class TestGenericControllerAspect {
                         "level",
                         "INFO",
                         "message",
-                        "getUser() returned: []")
+                        "getUser() returned: [unserializable object of type [bean.User]]")
         );
 
         assertEquals(expectedLogMessages, actualLogMessages);
@@ -799,12 +838,197 @@ public class TestGenericControllerAspect {
         User expectedReturnedValue = new User(1, "foobar@example.com", "password");
         assertEquals(expectedReturnedValue, actualReturnedValue);
 
-        verify(mockedJsonUtil, times(1)).toJson(new User(1, "foobar@example.com", "password"));
+        verify(mockedJsonUtil, times(1))
+                .toJson(
+                        eq(new User(1, "foobar@example.com", "password")),
+                        any(StringBuilder.class),
+                        anyInt(),
+                        anyInt()
+                );
+        verify(mockedJsonUtil, atLeastOnce()).setPropertyScrubbing(any(), anyString());
         verifyNoMoreInteractions(mockedJsonUtil);
 
         resetMock(mockedObjects);
     }
 
+    @Test
+    public void when_ControllerMethodUsesComposedMappingAnnotation_then_ItsMediaTypesAreResolved() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature methodSignature = mockMethodSignature(
+                "updateUser",
+                User.class,
+                new String[]{"user"},
+                new Class[]{User.class},
+                DummyController.class
+        );
+
+        User user = new User(1, "foobar@example.com", "password");
+        mockProceedingJoinPoint(proceedingJoinPoint, user, methodSignature, new DummyController(), new Object[]{user});
+
+        List<Object> mockedObjects = new ArrayList<>();
+        mockedObjects.add(methodSignature);
+        mockedObjects.add(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(
+                "updateUser() called with arguments: " +
+                        "user: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}] called via " +
+                        "url: [https://www.example.com], username: [Jean-Luc Picard]",
+                actualLogMessages.get(0).get("message")
+        );
+        assertEquals(
+                "updateUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]",
+                actualLogMessages.get(2).get("message")
+        );
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_TypeFailedToSerializeBefore_then_ItIsNotSerializedAgainNorWarnedAbout() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        JsonUtil mockedJsonUtil = mock(JsonUtil.class);
+        mockedObjects.add(mockedJsonUtil);
+        InvalidDefinitionException definitionError = InvalidDefinitionException.from(
+                (JsonGenerator)null,
+                "Intentionally thrown error",
+                TypeFactory.defaultInstance().constructType(User.class)
+        );
+        doThrow(new RuntimeException(definitionError))
+                .when(mockedJsonUtil).toJson(any(User.class), any(StringBuilder.class), anyInt(), anyInt());
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, mockedJsonUtil, mockedRequestUtil);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+        aspect.log(proceedingJoinPoint);
+        aspect.log(proceedingJoinPoint);
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        long warnings = actualLogMessages.stream().filter(message -> "WARN".equals(message.get("level"))).count();
+        assertEquals(1, warnings);
+        assertEquals(
+                "getUser() returned: [unserializable object of type [bean.User]]",
+                actualLogMessages.get(actualLogMessages.size() - 1).get("message")
+        );
+
+        verify(mockedJsonUtil, times(1)).toJson(any(User.class), any(StringBuilder.class), anyInt(), anyInt());
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_TypeFailsToSerializeRepeatedly_then_ItIsWarnedAboutOnceAndNotSerializedAnymore()
+            throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        JsonUtil mockedJsonUtil = mock(JsonUtil.class);
+        mockedObjects.add(mockedJsonUtil);
+        doThrow(new RuntimeException("Intentionally thrown error"))
+                .when(mockedJsonUtil).toJson(any(User.class), any(StringBuilder.class), anyInt(), anyInt());
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, mockedJsonUtil, mockedRequestUtil);
+
+        // calling logic to be tested
+        for (int i = 0; i < 5; ++i) {
+            aspect.log(proceedingJoinPoint);
+        }
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        long warnings = actualLogMessages.stream().filter(message -> "WARN".equals(message.get("level"))).count();
+        assertEquals(1, warnings);
+        assertEquals(
+                "getUser() returned: [unserializable object of type [bean.User]]",
+                actualLogMessages.get(actualLogMessages.size() - 1).get("message")
+        );
+
+        // failures other than an unserializable definition may be one-offs, so the type is given a few more tries.
+        verify(mockedJsonUtil, times(3)).toJson(any(User.class), any(StringBuilder.class), anyInt(), anyInt());
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_ElementOfContainerFailsToSerialize_then_ContainerTypeIsSerializedAgain() {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        MethodSignature methodSignature = null;
+        try {
+            methodSignature = mockMethodSignature(
+                    "getValues",
+                    List.class,
+                    new String[]{},
+                    new Class[]{},
+                    DummyController.class
+            );
+        } catch (NoSuchMethodException e) {
+            fail(e.getMessage());
+        }
+        mockedObjects.add(methodSignature);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+
+        // calling logic to be tested
+        try {
+            mockProceedingJoinPoint(
+                    proceedingJoinPoint,
+                    Collections.singletonList(new Object()),
+                    methodSignature,
+                    new DummyController(),
+                    new Object[]{}
+            );
+            aspect.log(proceedingJoinPoint);
+
+            mockProceedingJoinPoint(
+                    proceedingJoinPoint,
+                    Collections.singletonList("Jean-Luc Picard"),
+                    methodSignature,
+                    new DummyController(),
+                    new Object[]{}
+            );
+            aspect.log(proceedingJoinPoint);
+        } catch (Throwable t) {
+            fail(t.getMessage());
+        }
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(
+                "getValues() returned: [[\"Jean-Luc Picard\"]]",
+                actualLogMessages.get(actualLogMessages.size() - 1).get("message")
+        );
+        resetMock(mockedObjects);
+    }
+
     @Test
     public void when_FunctionArgumentsAreMockedObjects_then_TheyAreSerializedToMockedObjectStrings() {
         // mock behavior setup
@@ -879,7 +1103,7 @@ public class TestGenericControllerAspect {
                         "level",
                         "INFO",
                         "message",
-                        "createUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"password\"}]")
+                        "createUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]")
         );
 
         assertEquals(expectedLogMessages, actualLogMessages);
@@ -947,7 +1171,7 @@ public class TestGenericControllerAspect {
                         "level",
                         "INFO",
                         "message",
-                        "createUser() called with arguments: user: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"password\"}], " +
+                        "createUser() called with arguments: user: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}], " +
                                 "source: [homePage] called via " +
                                 "url: [https://www.example.com], username: [Jean-Luc Picard]")
         );
@@ -1413,6 +1637,48 @@ public class TestGenericControllerAspect {
         resetMock(mockedObjects);
     }
 
+    @Test
+    public void when_ArgumentIsAnnotatedWithSensitive_then_ItsValueIsScrubbedRegardlessOfName() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature methodSignature = mockMethodSignature(
+                "savePin",
+                Void.class,
+                new String[]{"code"},
+                new Class[]{String.class},
+                DummyController.class
+        );
+
+        mockProceedingJoinPoint(
+                proceedingJoinPoint,
+                null,
+                methodSignature,
+                new DummyController(),
+                new String[]{"1234"}
+        );
+
+        List<Object> mockedObjects = new ArrayList<>();
+        mockedObjects.add(methodSignature);
+        mockedObjects.add(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+        mockedObjects.add(mockedRequestUtil);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(
+                "savePin() called with arguments: code: [xxxxx] called via " +
+                        "url: [https://www.example.com], username: [Jean-Luc Picard]",
+                actualLogMessages.get(0).get("message")
+        );
+        resetMock(mockedObjects);
+    }
+
     @Test
     public void when_ArgumentNameIsInDataScrubberBlackList_and_ScrubbedValueIsOverriden_then_ItsValueIsScrubbedToOverridenValue() throws Throwable {
         // mock behavior setup
@@ -1970,6 +2236,73 @@ public class TestGenericControllerAspect {
         resetMock(mockedObjects);
     }
 
+    @Test
+    public void when_ControllerMethodThrowsException_then_ItIsLoggedFromAroundAdviceAndRethrown() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+
+        RuntimeException exception = new RuntimeException("Intentionally thrown exception");
+        when(proceedingJoinPoint.proceed()).thenThrow(exception);
+
+        // calling logic to be tested
+        try {
+            aspect.log(proceedingJoinPoint);
+            fail("Exception thrown by controller method is expected to be rethrown");
+        } catch (RuntimeException e) {
+            assertSame(exception, e);
+        }
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        // preparing expected output
+        List<Map<String, String>> expectedLogMessages = new ArrayList<>();
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level",
+                        "INFO",
+                        "message",
+                        "getUser() called with arguments: userId: [1] called via " +
+                                "url: [https://www.example.com], username: [Jean-Luc Picard]")
+        );
+
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level",
+                        "INFO",
+                        "message",
+                        "getUser() threw exception: [java.lang.RuntimeException: Intentionally thrown exception]")
+        );
+
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level",
+                        "INFO",
+                        "message",
+                        "getUser() took [0 ms] to complete")
+        );
+
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level",
+                        "INFO",
+                        "message",
+                        "getUser() returned: [null]")
+        );
+
+        assertEquals(expectedLogMessages, actualLogMessages);
+
+        // method name is taken from the cached descriptor, the signature is only asked for it once to create that.
+        verify((MethodSignature)mockedObjects.get(0), times(1)).getName();
+        resetMock(mockedObjects);
+    }
+
     @Test
     public void when_NewArgNameIsAddedToParamBlacklist_then_ItIsScrubbedAsWell() throws Throwable {
         // mock behavior setup
@@ -2012,7 +2345,7 @@ public class TestGenericControllerAspect {
                         "level",
                         "INFO",
                         "message",
-                        "getUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"password\"}]")
+                        "getUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]")
         );
 
         assertEquals(expectedLogMessages, actualLogMessages);
@@ -2022,6 +2355,941 @@ public class TestGenericControllerAspect {
         resetMock(mockedObjects);
     }
 
+    @Test
+    public void when_MethodIsCalledRepeatedly_then_ItsMetadataIsResolvedOnlyOnce() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+        MethodSignature methodSignature = (MethodSignature) mockedObjects.get(0);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+        aspect.log(proceedingJoinPoint);
+        aspect.log(proceedingJoinPoint);
+
+        verify(methodSignature, times(1)).getParameterNames();
+        verify(methodSignature, times(1)).getReturnType();
+        assertEquals(9, logger.getAllLoggingEvents().size());
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_ParamBlacklistChangesAfterFirstCall_then_NewBlacklistIsApplied() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+        aspect.setParamBlacklistRegex("user.*");
+        aspect.log(proceedingJoinPoint);
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(
+                "getUser() called with arguments: userId: [1] called via " +
+                        "url: [https://www.example.com], username: [Jean-Luc Picard]",
+                actualLogMessages.get(0).get("message")
+        );
+        assertEquals(
+                "getUser() called with arguments: userId: [xxxxx] called via " +
+                        "url: [https://www.example.com], username: [Jean-Luc Picard]",
+                actualLogMessages.get(3).get("message")
+        );
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_DataScrubbingIsDisabledAfterFirstCall_then_ArgsAreNoLongerScrubbed() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+        aspect.setParamBlacklistRegex("user.*");
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+        aspect.setEnableDataScrubbing(false);
+        aspect.log(proceedingJoinPoint);
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(
+                "getUser() called with arguments: userId: [xxxxx] called via " +
+                        "url: [https://www.example.com], username: [Jean-Luc Picard]",
+                actualLogMessages.get(0).get("message")
+        );
+        assertEquals(
+                "getUser() called with arguments: userId: [1] called via " +
+                        "url: [https://www.example.com], username: [Jean-Luc Picard]",
+                actualLogMessages.get(3).get("message")
+        );
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_AsyncLoggingIsEnabled_then_SameMessagesAreLoggedByTheTimeAspectIsDestroyed() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+        aspect.setAsyncLogDispatcher(new AsyncLogDispatcher(16, 1, AsyncLogDispatcher.OverflowPolicy.BLOCK));
+
+        // calling logic to be tested
+        Object actualReturnedValue = aspect.log(proceedingJoinPoint);
+        aspect.destroy();
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        // preparing expected output
+        List<Map<String, String>> expectedLogMessages = new ArrayList<>();
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level",
+                        "INFO",
+                        "message",
+                        "getUser() called with arguments: userId: [1] called via " +
+                                "url: [https://www.example.com], username: [Jean-Luc Picard]")
+        );
+
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level",
+                        "INFO",
+                        "message",
+                        "getUser() took [0 ms] to complete")
+        );
+
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level",
+                        "INFO",
+                        "message",
+                        "getUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]")
+        );
+
+        assertEquals(expectedLogMessages, actualLogMessages);
+
+        User expectedReturnedValue = new User(1, "foobar@example.com", "password");
+        assertEquals(expectedReturnedValue, actualReturnedValue);
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_CallIsNotSampledForPayload_then_OnlyContextAndExecutionTimeAreLogged() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        JsonUtil mockedJsonUtil = spy(JsonUtil.class);
+        mockedObjects.add(mockedJsonUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, mockedJsonUtil, mockedRequestUtil);
+        aspect.setPayloadSampleRate(0);
+
+        // calling logic to be tested
+        Object actualReturnedValue = aspect.log(proceedingJoinPoint);
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        // preparing expected output
+        List<Map<String, String>> expectedLogMessages = new ArrayList<>();
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level",
+                        "INFO",
+                        "message",
+                        "getUser() called via url: [https://www.example.com], username: [Jean-Luc Picard]")
+        );
+
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level",
+                        "INFO",
+                        "message",
+                        "getUser() took [0 ms] to complete")
+        );
+
+        assertEquals(expectedLogMessages, actualLogMessages);
+
+        User expectedReturnedValue = new User(1, "foobar@example.com", "password");
+        assertEquals(expectedReturnedValue, actualReturnedValue);
+
+        verify(mockedJsonUtil, atLeastOnce()).setPropertyScrubbing(any(), anyString());
+        verifyNoMoreInteractions(mockedJsonUtil);
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_MethodIsCalled_then_ItsLatencyIsRecordedIncludingFailures() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+        aspect.log(proceedingJoinPoint);
+
+        when(proceedingJoinPoint.proceed()).thenThrow(new RuntimeException("Intentionally thrown exception"));
+        try {
+            aspect.log(proceedingJoinPoint);
+            fail("Exception thrown by controller method is expected to be rethrown");
+        } catch (RuntimeException e) {
+            assertEquals("Intentionally thrown exception", e.getMessage());
+        }
+
+        LatencySnapshot snapshot = aspect.getLatencySnapshot("DummyController.getUser(int)");
+        assertNotNull(snapshot);
+        assertEquals(3, snapshot.getCount());
+        assertEquals(1, snapshot.getErrorCount());
+        assertEquals(
+                Collections.singleton("helpers.DummyController.getUser(int)"),
+                aspect.getLatencySnapshots().keySet()
+        );
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_ControllersOfSameNameAreCalled_then_TheirLatenciesAreRecordedSeparately() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        ProceedingJoinPoint v2ProceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature v2MethodSignature = mockMethodSignature(
+                "getUser",
+                User.class,
+                new String[]{"userId"},
+                new Class[]{int.class},
+                helpers.v2.DummyController.class
+        );
+        mockProceedingJoinPoint(
+                v2ProceedingJoinPoint,
+                new User(1, "foobar@example.com", "password"),
+                v2MethodSignature,
+                new helpers.v2.DummyController(),
+                new Object[]{1}
+        );
+        mockedObjects.add(v2MethodSignature);
+        mockedObjects.add(v2ProceedingJoinPoint);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+        aspect.log(v2ProceedingJoinPoint);
+        aspect.log(v2ProceedingJoinPoint);
+
+        Map<String, LatencySnapshot> snapshots = aspect.getLatencySnapshots();
+        assertEquals(2, snapshots.size());
+        assertEquals(1, snapshots.get("helpers.DummyController.getUser(int)").getCount());
+        assertEquals(2, snapshots.get("helpers.v2.DummyController.getUser(int)").getCount());
+
+        // short name is ambiguous now
+        assertNull(aspect.getLatencySnapshot("DummyController.getUser(int)"));
+        assertEquals(2, aspect.getLatencySnapshot("helpers.v2.DummyController.getUser(int)").getCount());
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_ConsolidatedLoggingIsEnabled_then_SingleEventIsLoggedPerCall() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+        aspect.setConsolidatedLogging(true);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+
+        RuntimeException exception = new RuntimeException("Intentionally thrown exception");
+        when(proceedingJoinPoint.proceed()).thenThrow(exception);
+        try {
+            aspect.log(proceedingJoinPoint);
+            fail("Exception thrown by controller method is expected to be rethrown");
+        } catch (RuntimeException e) {
+            aspect.onException(proceedingJoinPoint, e);
+        }
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        // preparing expected output
+        List<Map<String, String>> expectedLogMessages = new ArrayList<>();
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level",
+                        "INFO",
+                        "message",
+                        "getUser() called with arguments: userId: [1] called via " +
+                                "url: [https://www.example.com], username: [Jean-Luc Picard] took [0 ms] " +
+                                "and returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]")
+        );
+
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level",
+                        "INFO",
+                        "message",
+                        "getUser() called with arguments: userId: [1] called via " +
+                                "url: [https://www.example.com], username: [Jean-Luc Picard] took [0 ms] " +
+                                "and threw exception: [" + exception + "]")
+        );
+
+        assertEquals(expectedLogMessages, actualLogMessages);
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_StructuredLoggingIsEnabled_then_CallIsLoggedAsSingleJsonObject() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        JsonUtil jsonUtil = new JsonUtil();
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, jsonUtil, mockedRequestUtil);
+        aspect.setStructuredLogging(true);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+        assertEquals(1, actualLogMessages.size());
+
+        Map<String, Object> actualEvent = jsonUtil.fromJson(actualLogMessages.get(0).get("message"), Map.class);
+        assertTrue(actualEvent.remove("durationNanos") instanceof Number);
+
+        // preparing expected output
+        Map<String, Object> expectedEvent = new LinkedHashMap<>();
+        expectedEvent.put("method", "getUser");
+        expectedEvent.put("endpoint", "DummyController.getUser(int)");
+        expectedEvent.put("url", "https://www.example.com");
+        expectedEvent.put("username", "Jean-Luc Picard");
+        expectedEvent.put("status", "success");
+        expectedEvent.put("args", ImmutableMap.of("userId", "1"));
+        expectedEvent.put(
+                "result",
+                ImmutableMap.of("id", 1, "email", "foobar@example.com", "password", "xxxxx")
+        );
+
+        assertEquals(expectedEvent, actualEvent);
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_ControllersAreWarmedUp_then_OnlyLoggedMethodsAreWarmedUp() {
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), new RequestUtil());
+
+        assertEquals(1, aspect.warmUp(UserController.class));
+        assertEquals(1, aspect.warmUp(NoLoggingController.class));
+        assertEquals(0, aspect.warmUp(DummyController.class));
+    }
+
+    @Test
+    public void when_ContextIsRefreshed_then_WarmUpIsLoggedAndReusedByFirstCall() throws Throwable {
+        // mock behavior setup
+        ApplicationContext applicationContext = mock(ApplicationContext.class);
+        when(applicationContext.getBeanNamesForAnnotation(Controller.class))
+                .thenReturn(new String[]{"userController", "noLoggingController"});
+        doReturn(UserController.class).when(applicationContext).getType("userController");
+        doReturn(NoLoggingController.class).when(applicationContext).getType("noLoggingController");
+
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature methodSignature = mockMethodSignature(
+                "getUser",
+                User.class,
+                new String[]{},
+                new Class[]{},
+                UserController.class
+        );
+        mockProceedingJoinPoint(
+                proceedingJoinPoint,
+                new User(1, "foobar@example.com", "password"),
+                methodSignature,
+                new UserController(),
+                new Object[]{}
+        );
+
+        List<Object> mockedObjects = new ArrayList<>();
+        mockedObjects.add(applicationContext);
+        mockedObjects.add(methodSignature);
+        mockedObjects.add(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect =
+                spy(new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil));
+        aspect.setWarmUpOnStartup(true);
+
+        // calling logic to be tested
+        aspect.onApplicationEvent(new ContextRefreshedEvent(applicationContext));
+
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+        assertEquals(1, actualLogMessages.size());
+        assertTrue(Utils.lol(
+                "Warmed up logging of \\[2\\] controller methods in \\[\\d+ ms\\]",
+                actualLogMessages.get(0).get("message")
+        ));
+
+        MethodDescriptor warmedDescriptor = aspect.getMethodDescriptor(proceedingJoinPoint);
+        aspect.log(proceedingJoinPoint);
+
+        // the descriptor resolved on warm-up is the one used by the first call, nothing is resolved on the call itself.
+        verify(aspect, never()).createMethodDescriptor(any(MethodSignature.class), any());
+        assertSame(warmedDescriptor, aspect.getMethodDescriptor(proceedingJoinPoint));
+        assertEquals(1, aspect.getLatencySnapshot("UserController.getUser()").getCount());
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_InfoLevelIsDisabled_then_NothingIsSerializedOrExtracted_but_LatencyIsStillRecorded()
+            throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        JsonUtil mockedJsonUtil = spy(JsonUtil.class);
+        mockedObjects.add(mockedJsonUtil);
+
+        Logger mockedLogger = mock(Logger.class);
+        when(mockedLogger.isInfoEnabled()).thenReturn(false);
+        mockedObjects.add(mockedLogger);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(mockedLogger, mockedJsonUtil, mockedRequestUtil);
+        aspect.setStructuredLogging(true);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+        aspect.setStructuredLogging(false);
+        aspect.log(proceedingJoinPoint);
+
+        when(proceedingJoinPoint.proceed()).thenThrow(new RuntimeException("Intentionally thrown exception"));
+        try {
+            aspect.log(proceedingJoinPoint);
+            fail("Exception thrown by controller method is expected to be rethrown");
+        } catch (RuntimeException e) {
+            assertEquals("Intentionally thrown exception", e.getMessage());
+        }
+
+        verify(mockedLogger, times(3)).isInfoEnabled();
+        verifyNoMoreInteractions(mockedLogger);
+        verify(mockedRequestUtil, never()).getRequestContext();
+        verify(proceedingJoinPoint, never()).getArgs();
+        verify(mockedJsonUtil, atLeastOnce()).setPropertyScrubbing(any(), anyString());
+        verifyNoMoreInteractions(mockedJsonUtil);
+
+        LatencySnapshot snapshot = aspect.getLatencySnapshot("DummyController.getUser(int)");
+        assertNotNull(snapshot);
+        assertEquals(3, snapshot.getCount());
+        assertEquals(1, snapshot.getErrorCount());
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_MethodReturnsMono_then_ExecutionTimeAndValueAreLoggedOnCompletion() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature methodSignature = mockMethodSignature(
+                "getUserReactive",
+                Mono.class,
+                new String[]{"userId"},
+                new Class[]{int.class},
+                DummyController.class
+        );
+
+        mockProceedingJoinPoint(
+                proceedingJoinPoint,
+                Mono.just(new User(1, "foobar@example.com", "password")),
+                methodSignature,
+                new DummyController(),
+                new Object[]{1}
+        );
+
+        List<Object> mockedObjects = new ArrayList<>();
+        mockedObjects.add(methodSignature);
+        mockedObjects.add(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+
+        // calling logic to be tested
+        Mono<?> result = (Mono<?>)aspect.log(proceedingJoinPoint);
+
+        // nothing but arguments is logged before the Mono completes
+        assertEquals(1, Utils.getFormattedLogEvents(logger).size());
+        assertEquals(0, aspect.getLatencySnapshot("DummyController.getUserReactive(int)").getCount());
+
+        assertEquals(new User(1, "foobar@example.com", "password"), result.block());
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(3, actualLogMessages.size());
+        assertTrue(Utils.lol(
+                "getUserReactive\\(\\) took \\[\\d+ ms\\] to complete",
+                actualLogMessages.get(1).get("message")
+        ));
+        assertEquals(
+                "getUserReactive() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]",
+                actualLogMessages.get(2).get("message")
+        );
+        assertEquals(1, aspect.getLatencySnapshot("DummyController.getUserReactive(int)").getCount());
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_MonoFails_then_ExceptionIsLoggedOnCompletion() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature methodSignature = mockMethodSignature(
+                "getUserReactive",
+                Mono.class,
+                new String[]{"userId"},
+                new Class[]{int.class},
+                DummyController.class
+        );
+
+        RuntimeException exception = new RuntimeException("Intentionally thrown exception");
+        mockProceedingJoinPoint(
+                proceedingJoinPoint,
+                Mono.error(exception),
+                methodSignature,
+                new DummyController(),
+                new Object[]{1}
+        );
+
+        List<Object> mockedObjects = new ArrayList<>();
+        mockedObjects.add(methodSignature);
+        mockedObjects.add(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+        aspect.setConsolidatedLogging(true);
+
+        // calling logic to be tested
+        Mono<?> result = (Mono<?>)aspect.log(proceedingJoinPoint);
+        assertTrue(Utils.getFormattedLogEvents(logger).isEmpty());
+
+        try {
+            result.block();
+            fail("Exception of Mono is expected to reach the subscriber");
+        } catch (RuntimeException e) {
+            assertSame(exception, e);
+        }
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(1, actualLogMessages.size());
+        assertTrue(Utils.lol(
+                "getUserReactive\\(\\) called with arguments: userId: \\[1\\] called via .* took \\[\\d+ ms\\] " +
+                        "and threw exception: \\[java.lang.RuntimeException: Intentionally thrown exception\\]",
+                actualLogMessages.get(0).get("message")
+        ));
+        assertEquals(1, aspect.getLatencySnapshot("DummyController.getUserReactive(int)").getErrorCount());
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_MethodReturnsCompletableFuture_then_CallIsLoggedWhenFutureCompletes() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature methodSignature = mockMethodSignature(
+                "getUserAsync",
+                CompletableFuture.class,
+                new String[]{"userId"},
+                new Class[]{int.class},
+                DummyController.class
+        );
+
+        CompletableFuture<User> future = new CompletableFuture<>();
+        mockProceedingJoinPoint(proceedingJoinPoint, future, methodSignature, new DummyController(), new Object[]{1});
+
+        List<Object> mockedObjects = new ArrayList<>();
+        mockedObjects.add(methodSignature);
+        mockedObjects.add(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+        aspect.setConsolidatedLogging(true);
+
+        // calling logic to be tested
+        assertSame(future, aspect.log(proceedingJoinPoint));
+        assertTrue(Utils.getFormattedLogEvents(logger).isEmpty());
+
+        future.complete(new User(1, "foobar@example.com", "password"));
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(1, actualLogMessages.size());
+        assertTrue(Utils.lol(
+                "getUserAsync\\(\\) called with arguments: userId: \\[1\\] called via .* took \\[\\d+ ms\\] " +
+                        "and returned: \\[\\{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"\\}\\]",
+                actualLogMessages.get(0).get("message")
+        ));
+        assertEquals(1, aspect.getLatencySnapshot("DummyController.getUserAsync(int)").getCount());
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_MethodReturnsFlux_then_ElementsAreCountedInsteadOfLogged() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature methodSignature = mockMethodSignature(
+                "getNotes",
+                Flux.class,
+                new String[]{},
+                new Class[]{},
+                DummyController.class
+        );
+
+        mockProceedingJoinPoint(
+                proceedingJoinPoint,
+                Flux.just("Hello, ", "World!"),
+                methodSignature,
+                new DummyController(),
+                new Object[]{}
+        );
+
+        List<Object> mockedObjects = new ArrayList<>();
+        mockedObjects.add(methodSignature);
+        mockedObjects.add(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+
+        // calling logic to be tested
+        Flux<?> result = (Flux<?>)aspect.log(proceedingJoinPoint);
+        assertEquals(Arrays.asList("Hello, ", "World!"), result.collectList().block());
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(3, actualLogMessages.size());
+        assertTrue(Utils.lol(
+                "getNotes\\(\\) returned: \\[stream of \\[2\\] elements of \\[13 B\\], first after \\[\\d+ ms\\]\\]",
+                actualLogMessages.get(2).get("message")
+        ));
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_MethodReturnsStreamingBodyInEntity_then_CallIsLoggedWhenBodyIsWritten() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature methodSignature = mockMethodSignature(
+                "exportNotes",
+                ResponseEntity.class,
+                new String[]{},
+                new Class[]{},
+                DummyController.class
+        );
+
+        DummyController controller = new DummyController();
+        mockProceedingJoinPoint(
+                proceedingJoinPoint,
+                controller.exportNotes(),
+                methodSignature,
+                controller,
+                new Object[]{}
+        );
+
+        List<Object> mockedObjects = new ArrayList<>();
+        mockedObjects.add(methodSignature);
+        mockedObjects.add(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+        aspect.setConsolidatedLogging(true);
+
+        // calling logic to be tested
+        ResponseEntity<?> result = (ResponseEntity<?>)aspect.log(proceedingJoinPoint);
+        assertTrue(Utils.getFormattedLogEvents(logger).isEmpty());
+
+        ((StreamingResponseBody)result.getBody()).writeTo(new ByteArrayOutputStream());
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(1, actualLogMessages.size());
+        assertTrue(Utils.lol(
+                "exportNotes\\(\\) called via .* took \\[\\d+ ms\\] " +
+                        "and returned: \\[stream of \\[13 B\\], first after \\[\\d+ ms\\]\\]",
+                actualLogMessages.get(0).get("message")
+        ));
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_MethodReturnsResponseEntity_then_StatusAllowedHeadersAndScrubbedBodyAreLogged() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature methodSignature = mockMethodSignature(
+                "createUserEntity",
+                ResponseEntity.class,
+                new String[]{"userId"},
+                new Class[]{int.class},
+                DummyController.class
+        );
+
+        mockProceedingJoinPoint(
+                proceedingJoinPoint,
+                new DummyController().createUserEntity(1),
+                methodSignature,
+                new DummyController(),
+                new Object[]{1}
+        );
+
+        List<Object> mockedObjects = new ArrayList<>();
+        mockedObjects.add(methodSignature);
+        mockedObjects.add(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(3, actualLogMessages.size());
+        assertEquals(
+                "createUserEntity() returned: [status [201], headers [Location: /users/1], " +
+                        "body [{\"id\":1,\"email\":\"foo@example.com\",\"password\":\"xxxxx\"}]]",
+                actualLogMessages.get(2).get("message")
+        );
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_MethodReturnsResponseEntityWithStructuredLogging_then_StatusAndBodyAreSeparateFields()
+            throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature methodSignature = mockMethodSignature(
+                "createUserEntity",
+                ResponseEntity.class,
+                new String[]{"userId"},
+                new Class[]{int.class},
+                DummyController.class
+        );
+
+        mockProceedingJoinPoint(
+                proceedingJoinPoint,
+                new DummyController().createUserEntity(1),
+                methodSignature,
+                new DummyController(),
+                new Object[]{1}
+        );
+
+        List<Object> mockedObjects = new ArrayList<>();
+        mockedObjects.add(methodSignature);
+        mockedObjects.add(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        JsonUtil jsonUtil = new JsonUtil();
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, jsonUtil, mockedRequestUtil);
+        aspect.setStructuredLogging(true);
+
+        // calling logic to be tested
+        aspect.log(proceedingJoinPoint);
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+        assertEquals(1, actualLogMessages.size());
+
+        Map<String, Object> actualEvent = jsonUtil.fromJson(actualLogMessages.get(0).get("message"), Map.class);
+
+        assertEquals(201, actualEvent.get("httpStatus"));
+        assertEquals(ImmutableMap.of("Location", "/users/1"), actualEvent.get("headers"));
+        assertEquals(
+                ImmutableMap.of("id", 1, "email", "foo@example.com", "password", "xxxxx"),
+                actualEvent.get("result")
+        );
+        assertFalse(actualEvent.containsKey("bodySize"));
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_ResponseBodyIsCaptured_then_WrittenBytesAreLoggedScrubbedInsteadOfSerializingResult()
+            throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        List<Object> mockedObjects = MockUtils.mockWorkflow(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+        aspect.setConsolidatedLogging(true);
+        aspect.setResponseBodyCapture(true);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+
+        // calling logic to be tested
+        try {
+            new ResponseBodyCaptureFilter(1024).doFilter(request, response, (filteredRequest, filteredResponse) -> {
+                try {
+                    aspect.log(proceedingJoinPoint);
+                } catch (Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+                assertTrue(Utils.getFormattedLogEvents(logger).isEmpty());
+
+                // done by Spring MVC once the controller method returned
+                new ResponseBodyCaptureAdvice().beforeBodyWrite(
+                        null,
+                        null,
+                        MediaType.APPLICATION_JSON,
+                        null,
+                        new ServletServerHttpRequest((HttpServletRequest)filteredRequest),
+                        null
+                );
+                filteredResponse.getOutputStream().write(
+                        "{\"id\":1,\"email\":\"written@example.com\",\"password\":\"secret\"}".getBytes("UTF-8")
+                );
+            });
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(1, actualLogMessages.size());
+        assertTrue(Utils.lol(
+                "getUser\\(\\) called with arguments: userId: \\[1\\] called via .* took \\[\\d+ ms\\] " +
+                        "and returned: \\[\\{\"id\":1,\"email\":\"written@example.com\",\"password\":\"xxxxx\"\\}\\]",
+                actualLogMessages.get(0).get("message")
+        ));
+        assertEquals(1, aspect.getLatencySnapshot("DummyController.getUser(int)").getCount());
+        resetMock(mockedObjects);
+    }
+
+    @Test
+    public void when_ResultMayContainSensitiveProperty_then_ItIsSerializedInsteadOfCaptured() throws Throwable {
+        // mock behavior setup
+        ProceedingJoinPoint proceedingJoinPoint = mock(ProceedingJoinPoint.class, RETURNS_DEEP_STUBS);
+        MethodSignature methodSignature = mockMethodSignature(
+                "getCredentials",
+                Credentials.class,
+                new String[]{},
+                new Class[]{},
+                DummyController.class
+        );
+        mockProceedingJoinPoint(
+                proceedingJoinPoint,
+                new Credentials("foo", "token"),
+                methodSignature,
+                new DummyController(),
+                new Object[]{}
+        );
+
+        List<Object> mockedObjects = new ArrayList<>();
+        mockedObjects.add(methodSignature);
+        mockedObjects.add(proceedingJoinPoint);
+
+        RequestUtil mockedRequestUtil = MockUtils.mockRequestUtil();
+        mockedObjects.add(mockedRequestUtil);
+
+        GenericControllerAspect aspect = new GenericControllerAspect(logger, new JsonUtil(), mockedRequestUtil);
+        aspect.setConsolidatedLogging(true);
+        aspect.setResponseBodyCapture(true);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+
+        // calling logic to be tested
+        try {
+            new ResponseBodyCaptureFilter(1024).doFilter(request, response, (filteredRequest, filteredResponse) -> {
+                try {
+                    aspect.log(proceedingJoinPoint);
+                } catch (Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+                // logged right away, as the captured body could not be scrubbed of the sensitive token
+                assertEquals(1, Utils.getFormattedLogEvents(logger).size());
+            });
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        // preparing actual output
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+
+        assertEquals(1, actualLogMessages.size());
+        assertTrue(Utils.lol(
+                "getCredentials\\(\\) called via .* took \\[\\d+ ms\\] " +
+                        "and returned: \\[\\{\"username\":\"foo\",\"token\":\"xxxxx\"\\}\\]",
+                actualLogMessages.get(0).get("message")
+        ));
+        resetMock(mockedObjects);
+    }
+
     private void resetMock(List<Object> mockedObjects) {
         mockedObjects.forEach(Mockito::reset);
     }
@@ -62,7 +62,7 @@ public class IntegrationTest extends BaseIntegrationTest {
         expectedLogMessages.add(
                 ImmutableMap.of(
                         "level", "INFO",
-                        "message", "getUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"secretpassword\"}]")
+                        "message", "getUser() returned: [{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}]")
         );
 
         List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
@@ -73,6 +73,43 @@ public class IntegrationTest extends BaseIntegrationTest {
         assertEquals(expectedUser, actualUser);
     }
 
+    @Test
+    public void when_ClassHasNoLoggingAnnotation_then_OnlyMethodsAnnotatedWithLoggingAreLogged() throws Exception {
+        mvc.perform(
+                get("/getUserWithoutLogging")
+                        .header("Authorization", Utils.generateBasicAuthToken("username", "password"))
+                        .header("Accept", "application/json")
+        ).andReturn();
+
+        assertTrue(Utils.getFormattedLogEvents(logger).isEmpty());
+
+        mvc.perform(
+                get("/getUserWithMethodLogging")
+                        .header("Authorization", Utils.generateBasicAuthToken("username", "password"))
+                        .header("Accept", "application/json")
+        ).andReturn();
+
+        List<Map<String, String>> expectedLogMessages = new ArrayList<>();
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level", "INFO",
+                        "message", "getUserWithMethodLogging() called via " +
+                                "url: [http://localhost/getUserWithMethodLogging], username: [username]")
+        );
+
+        expectedLogMessages.add(
+                ImmutableMap.of(
+                        "level", "INFO",
+                        "message", "getUserWithMethodLogging\\(\\) took \\[\\d+ ms\\] to complete",
+                        "type", "regex")
+        );
+
+        List<Map<String, String>> actualLogMessages = Utils.getFormattedLogEvents(logger);
+        assertEquals(3, actualLogMessages.size());
+
+        validateLogs(expectedLogMessages, actualLogMessages);
+    }
+
     private void validateLogs(List<Map<String, String>> expectedLogMessages, List<Map<String, String>> actualLogMessages) {
         for (int i = 0; i < expectedLogMessages.size(); ++i) {
             assertEquals(expectedLogMessages.get(i).get("level"), actualLogMessages.get(i).get("level"));
@@ -0,0 +1,35 @@
+package io.github.logger.controller.aspect.integration.spring_boot_application;
+
+import bean.User;
+import io.github.logger.controller.annotation.Logging;
+import io.github.logger.controller.annotation.NoLogging;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+@Controller
+@Logging
+@NoLogging
+public class NoLoggingController {
+
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/getUserWithoutLogging",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @ResponseBody
+    public User getUserWithoutLogging() {
+        return new User(1, "foobar@example.com", "secretpassword");
+    }
+
+    @RequestMapping(
+            method = RequestMethod.GET,
+            value = "/getUserWithMethodLogging",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @ResponseBody
+    @Logging
+    public User getUserWithMethodLogging() {
+        return new User(1, "foobar@example.com", "secretpassword");
+    }
+}
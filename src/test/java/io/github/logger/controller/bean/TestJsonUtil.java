@@ -1,10 +1,23 @@
 package io.github.logger.controller.bean;
 
 import bean.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import io.github.logger.controller.annotation.Sensitive;
 import io.github.logger.controller.utils.JsonUtil;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class TestJsonUtil {
 
@@ -19,4 +32,224 @@ public class TestJsonUtil {
         assertEquals(user, deserialziedUser);
     }
 
+    @Test
+    public void when_ObjectsAreStreamedIntoBuffer_then_BufferContainsSameJsonAsToJson() {
+        JsonUtil jsonUtil = new JsonUtil();
+        User user = new User(1, "foobar@example.com", "password");
+
+        StringBuilder buffer = new StringBuilder("user: [");
+        jsonUtil.toJson(user, buffer);
+        buffer.append("], list: [");
+        jsonUtil.toJson(Arrays.asList(1, 2, 3), buffer);
+        buffer.append("], nothing: [");
+        jsonUtil.toJson(null, buffer);
+        buffer.append("]");
+
+        assertEquals(
+                "user: [" + jsonUtil.toJson(user) + "], list: [[1,2,3]], nothing: [null]",
+                buffer.toString()
+        );
+    }
+
+    @Test
+    public void when_StreamingSerializationFails_then_BufferIsRestoredAndNextCallStillWorks() {
+        JsonUtil jsonUtil = new JsonUtil();
+
+        StringBuilder buffer = new StringBuilder("prefix");
+        try {
+            jsonUtil.toJson(new Object(), buffer);
+            fail("Serializing object without properties is expected to fail");
+        } catch (RuntimeException e) {
+            assertEquals("prefix", buffer.toString());
+        }
+
+        jsonUtil.toJson("foo", buffer);
+        assertEquals("prefix\"foo\"", buffer.toString());
+    }
+
+    @Test
+    public void when_JsonExceedsCharacterLimit_then_ItIsTruncatedAndMarked() {
+        JsonUtil jsonUtil = new JsonUtil();
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 100000; ++i) {
+            numbers.add(i);
+        }
+
+        StringBuilder buffer = new StringBuilder();
+        jsonUtil.toJson(numbers, buffer, 10, 0);
+
+        assertEquals("[0,1,2,3,4...[truncated, 10+ bytes]", buffer.toString());
+    }
+
+    @Test
+    public void when_JsonExceedsByteLimit_then_MultiByteCharactersAreCountedInBytes() {
+        JsonUtil jsonUtil = new JsonUtil();
+
+        StringBuilder buffer = new StringBuilder();
+        jsonUtil.toJson("\u00e9\u00e9\u00e9\u00e9", buffer, 0, 6);
+
+        assertEquals("\"\u00e9\u00e9...[truncated, 5+ bytes]", buffer.toString());
+    }
+
+    @Test
+    public void when_JsonIsWithinLimit_then_ItIsNotTruncated() {
+        JsonUtil jsonUtil = new JsonUtil();
+
+        StringBuilder buffer = new StringBuilder();
+        jsonUtil.toJson(Arrays.asList(1, 2, 3), buffer, 7, 7);
+
+        assertEquals("[1,2,3]", buffer.toString());
+    }
+
+    @Test
+    public void when_PropertyScrubbingIsSet_then_MatchingPropertiesAreScrubbedAtAnyDepth() {
+        JsonUtil jsonUtil = new JsonUtil();
+        jsonUtil.setPropertyScrubbing(name -> name.equals("password"), "xxxxx");
+
+        List<User> users = Arrays.asList(
+                new User(1, "foobar@example.com", "password"),
+                new User(2, "foo@example.com", "secret")
+        );
+
+        StringBuilder buffer = new StringBuilder();
+        jsonUtil.toJson(users, buffer);
+
+        assertEquals(
+                "[{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}," +
+                        "{\"id\":2,\"email\":\"foo@example.com\",\"password\":\"xxxxx\"}]",
+                buffer.toString()
+        );
+
+        jsonUtil.setPropertyScrubbing(null, "xxxxx");
+        assertEquals(
+                "{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"password\"}",
+                jsonUtil.toJson(users.get(0))
+        );
+    }
+
+    @Test
+    public void when_PropertyScrubbingIsSet_then_MapEntriesWithMatchingKeysAreScrubbed() {
+        JsonUtil jsonUtil = new JsonUtil();
+        jsonUtil.setPropertyScrubbing(name -> name.equals("password"), "xxxxx");
+
+        Map<String, Object> credentials = new LinkedHashMap<>();
+        credentials.put("username", "foo");
+        credentials.put("password", "secret");
+        credentials.put("user", new User(1, "foobar@example.com", "password"));
+
+        assertEquals(
+                "{\"username\":\"foo\",\"password\":\"xxxxx\"," +
+                        "\"user\":{\"id\":1,\"email\":\"foobar@example.com\",\"password\":\"xxxxx\"}}",
+                jsonUtil.toJson(credentials)
+        );
+        assertEquals(
+                "[{\"password\":\"xxxxx\"}]",
+                jsonUtil.toJson(Collections.singletonList(Collections.singletonMap("password", 1234)))
+        );
+    }
+
+    @Test
+    public void when_PropertyIsAnnotatedWithSensitive_then_ItIsScrubbedWithoutBeingRead() {
+        JsonUtil jsonUtil = new JsonUtil();
+        jsonUtil.setPropertyScrubbing(name -> false, "xxxxx");
+
+        assertEquals("{\"name\":\"foo\",\"token\":\"xxxxx\"}", jsonUtil.toJson(new Account("foo")));
+    }
+
+    @Test
+    public void when_ObjectMapperIsSupplied_then_ItsConfigurationIsUsedWithoutModifyingIt() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().setPropertyNamingStrategy(PropertyNamingStrategy.UPPER_CAMEL_CASE);
+        JsonUtil jsonUtil = new JsonUtil(objectMapper);
+        jsonUtil.setPropertyScrubbing(name -> name.equalsIgnoreCase("password"), "xxxxx");
+
+        User user = new User(1, "foobar@example.com", "password");
+
+        assertEquals("{\"Id\":1,\"Email\":\"foobar@example.com\",\"Password\":\"xxxxx\"}", jsonUtil.toJson(user));
+        assertEquals(
+                "{\"Id\":1,\"Email\":\"foobar@example.com\",\"Password\":\"password\"}",
+                objectMapper.writeValueAsString(user)
+        );
+    }
+
+    @Test
+    public void when_JsonIsCopied_then_ScrubbedPropertiesAreReplacedAtAnyDepth() throws Exception {
+        JsonUtil jsonUtil = new JsonUtil();
+        jsonUtil.setPropertyScrubbing(name -> name.equals("password"), "xxxxx");
+        byte[] json = "{\"id\":1,\"password\":{\"hash\":\"abc\"},\"friends\":[{\"password\":\"secret\"}]}"
+                .getBytes("UTF-8");
+
+        StringBuilder buffer = new StringBuilder("prefix ");
+        assertTrue(jsonUtil.copyJson(json, json.length, true, buffer, 0, 0));
+
+        assertEquals(
+                "prefix {\"id\":1,\"password\":\"xxxxx\",\"friends\":[{\"password\":\"xxxxx\"}]}",
+                buffer.toString()
+        );
+    }
+
+    @Test
+    public void when_CutOffJsonIsCopied_then_ItIsCopiedUpToTheCut_and_NextCallStillWorks() throws Exception {
+        JsonUtil jsonUtil = new JsonUtil();
+        byte[] json = "[\"foo\",\"bar\"]".getBytes("UTF-8");
+
+        StringBuilder buffer = new StringBuilder();
+        assertTrue(jsonUtil.copyJson(json, 10, false, buffer, 0, 0));
+        assertEquals("[\"foo\"", buffer.toString());
+
+        buffer.setLength(0);
+        jsonUtil.toJson("foo", buffer);
+        assertEquals("\"foo\"", buffer.toString());
+
+        try {
+            jsonUtil.copyJson(json, 10, true, buffer, 0, 0);
+            fail("Copying invalid JSON is expected to fail");
+        } catch (RuntimeException e) {
+            assertEquals("\"foo\"", buffer.toString());
+        }
+    }
+
+    @Test
+    public void when_TypeMayContainSensitiveProperty_then_ItIsReportedAtAnyDepth() throws Exception {
+        JsonUtil jsonUtil = new JsonUtil();
+
+        assertFalse(jsonUtil.mayContainSensitiveProperties(User.class));
+        assertFalse(jsonUtil.mayContainSensitiveProperties(String.class));
+        assertFalse(jsonUtil.mayContainSensitiveProperties(
+                TestJsonUtil.class.getDeclaredMethod("usersByName").getGenericReturnType()
+        ));
+        assertTrue(jsonUtil.mayContainSensitiveProperties(Account.class));
+        assertTrue(jsonUtil.mayContainSensitiveProperties(
+                TestJsonUtil.class.getDeclaredMethod("accounts").getGenericReturnType()
+        ));
+        // properties of the runtime class are unknown
+        assertTrue(jsonUtil.mayContainSensitiveProperties(Object.class));
+    }
+
+    private static Map<String, List<User>> usersByName() {
+        return null;
+    }
+
+    private static List<Account> accounts() {
+        return null;
+    }
+
+    public static class Account {
+
+        private final String name;
+
+        @Sensitive
+        private String token;
+
+        private Account(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getToken() {
+            throw new IllegalStateException("Sensitive property is not expected to be read");
+        }
+    }
 }
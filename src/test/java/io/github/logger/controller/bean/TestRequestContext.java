@@ -27,6 +27,17 @@ public class TestRequestContext {
         assertEquals(expectedResult, context.toString());
     }
 
+    @Test
+    public void when_RequestContextIsAppendedToBuffer_then_SameTextAsToStringIsAppended() {
+        RequestContext context = new RequestContext()
+                .add("key1", "value1")
+                .add("key2", "value2");
+
+        StringBuilder buffer = new StringBuilder("called via ");
+        context.appendTo(buffer);
+        assertEquals("called via key1: [value1], key2: [value2]", buffer.toString());
+    }
+
     @Test
     public void when_NullValueIsAddedToContext_then_ItIsStoredAsStringContainingNull() {
         RequestContext context = new RequestContext()
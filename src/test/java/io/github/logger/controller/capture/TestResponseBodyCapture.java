@@ -0,0 +1,96 @@
+package io.github.logger.controller.capture;
+
+import io.github.logger.controller.bean.CapturedBody;
+import io.github.logger.controller.utils.CompletionListener;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestResponseBodyCapture {
+
+    private final List<Object> results = new ArrayList<>();
+
+    private final CompletionListener listener = (result, failure) -> results.add(result);
+
+    @After
+    public void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void filter(MockHttpServletResponse response, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        new ResponseBodyCaptureFilter(8).doFilter(request, response, chain);
+    }
+
+    private static void startJsonBody(ServletRequest request, MediaType contentType) {
+        new ResponseBodyCaptureAdvice().beforeBodyWrite(
+                null, null, contentType, null, new ServletServerHttpRequest((HttpServletRequest)request), null
+        );
+    }
+
+    @Test
+    public void when_JsonBodyIsWritten_then_ItsBeginningIsCapturedWhileTheWholeBodyIsSent() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter(response, (request, filteredResponse) -> {
+            assertTrue(ResponseBodyCapture.observe(listener));
+            filteredResponse.getOutputStream().write("ignored".getBytes("UTF-8"));
+            filteredResponse.resetBuffer();
+
+            startJsonBody(request, MediaType.APPLICATION_JSON_UTF8);
+            filteredResponse.getOutputStream().write('[');
+            filteredResponse.getOutputStream().write("1,2,3,4,5]".getBytes("UTF-8"));
+            assertTrue(results.isEmpty());
+        });
+
+        assertEquals("[1,2,3,4,5]", response.getContentAsString());
+        assertEquals(1, results.size());
+        CapturedBody body = (CapturedBody)results.get(0);
+        assertEquals(8, body.getLength());
+        assertEquals(11, body.getTotalBytes());
+        assertTrue(body.isTruncated());
+        assertArrayEquals("[1,2,3,4".getBytes("UTF-8"), Arrays.copyOf(body.getBytes(), body.getLength()));
+    }
+
+    @Test
+    public void when_BodyIsNotJson_then_NothingIsCaptured() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter(response, (request, filteredResponse) -> {
+            assertTrue(ResponseBodyCapture.observe(listener));
+            startJsonBody(request, MediaType.TEXT_PLAIN);
+            filteredResponse.getOutputStream().write("Hello".getBytes("UTF-8"));
+        });
+
+        assertEquals("Hello", response.getContentAsString());
+        assertEquals(1, results.size());
+        assertNull(results.get(0));
+    }
+
+    @Test
+    public void when_FilterIsNotApplied_then_BodyCannotBeObserved() {
+        assertFalse(ResponseBodyCapture.observe(listener));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertFalse(ResponseBodyCapture.observe(listener));
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.logger.controller.utils;
+
+import io.github.logger.controller.utils.AsyncLogDispatcher.OverflowPolicy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestAsyncLogDispatcher {
+
+    @Test
+    public void when_DispatcherIsShutDown_then_QueuedEventsAreFlushedInOrder() {
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(16, 1, OverflowPolicy.BLOCK);
+        List<Integer> loggedEvents = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 10; ++i) {
+            int event = i;
+            dispatcher.submitPayload(() -> loggedEvents.add(event));
+        }
+        dispatcher.shutdown();
+
+        assertEquals(10, loggedEvents.size());
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(Integer.valueOf(i), loggedEvents.get(i));
+        }
+    }
+
+    @Test
+    public void when_EventsAreSubmittedDuringShutdown_then_NoneIsLost() throws Exception {
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(1024, 1, OverflowPolicy.DROP_PAYLOAD);
+        AtomicInteger loggedEvents = new AtomicInteger();
+        CountDownLatch submittersStarted = new CountDownLatch(4);
+
+        List<Thread> submitters = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            Thread submitter = new Thread(() -> {
+                submittersStarted.countDown();
+                for (int j = 0; j < 1000; ++j) {
+                    dispatcher.submit(loggedEvents::incrementAndGet);
+                }
+            });
+            submitters.add(submitter);
+            submitter.start();
+        }
+
+        assertTrue(submittersStarted.await(5, TimeUnit.SECONDS));
+        dispatcher.shutdown();
+        for (Thread submitter : submitters) {
+            submitter.join(5000);
+        }
+
+        assertEquals(4000, loggedEvents.get());
+        assertEquals(0, dispatcher.getQueueSize());
+    }
+
+    @Test
+    public void when_QueueIsFullAndPayloadIsDropped_then_PayloadIsCountedAndOtherEventsAreLoggedInline() throws Exception {
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(1, 1, OverflowPolicy.DROP_PAYLOAD);
+        List<String> loggedEvents = new CopyOnWriteArrayList<>();
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        CountDownLatch releaseWorker = new CountDownLatch(1);
+
+        dispatcher.submit(() -> {
+            workerBusy.countDown();
+            awaitQuietly(releaseWorker);
+        });
+        assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+
+        dispatcher.submitPayload(() -> loggedEvents.add("queued"));
+        dispatcher.submitPayload(() -> loggedEvents.add("dropped"));
+        dispatcher.submit(() -> loggedEvents.add("inline"));
+
+        assertEquals(1, loggedEvents.size());
+        assertEquals("inline", loggedEvents.get(0));
+
+        releaseWorker.countDown();
+        dispatcher.shutdown();
+
+        assertEquals(2, loggedEvents.size());
+        assertEquals("queued", loggedEvents.get(1));
+        assertEquals(1, dispatcher.getDroppedPayloadCount());
+        assertEquals(0, dispatcher.getDroppedEventCount());
+    }
+
+    @Test
+    public void when_QueueIsFullAndAllIsDropped_then_EveryEventIsCounted() throws Exception {
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(1, 1, OverflowPolicy.DROP_ALL);
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        CountDownLatch releaseWorker = new CountDownLatch(1);
+
+        dispatcher.submit(() -> {
+            workerBusy.countDown();
+            awaitQuietly(releaseWorker);
+        });
+        assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+
+        dispatcher.submit(() -> { });
+        dispatcher.submitPayload(() -> { });
+        dispatcher.submit(() -> { });
+
+        releaseWorker.countDown();
+        dispatcher.shutdown();
+
+        assertEquals(1, dispatcher.getDroppedPayloadCount());
+        assertEquals(1, dispatcher.getDroppedEventCount());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
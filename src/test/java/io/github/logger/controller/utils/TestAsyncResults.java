@@ -0,0 +1,245 @@
+package io.github.logger.controller.utils;
+
+import io.github.logger.controller.bean.ResultKind;
+import io.github.logger.controller.bean.StreamSummary;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestAsyncResults {
+
+    private final List<Object> results = new ArrayList<>();
+
+    private final List<Throwable> failures = new ArrayList<>();
+
+    private final CompletionListener listener = (result, failure) -> {
+        results.add(result);
+        failures.add(failure);
+    };
+
+    @After
+    public void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void when_ReturnTypeIsAsynchronous_then_ItsKindIsResolved() {
+        assertEquals(ResultKind.COMPLETION_STAGE, AsyncResults.getResultKind(CompletableFuture.class));
+        assertEquals(ResultKind.COMPLETION_STAGE, AsyncResults.getResultKind(CompletionStage.class));
+        assertEquals(ResultKind.LISTENABLE_FUTURE, AsyncResults.getResultKind(ListenableFuture.class));
+        assertEquals(ResultKind.CALLABLE, AsyncResults.getResultKind(Callable.class));
+        assertEquals(ResultKind.DEFERRED_RESULT, AsyncResults.getResultKind(DeferredResult.class));
+        assertEquals(ResultKind.WEB_ASYNC_TASK, AsyncResults.getResultKind(WebAsyncTask.class));
+        assertEquals(ResultKind.STREAMING_RESPONSE_BODY, AsyncResults.getResultKind(StreamingResponseBody.class));
+        assertEquals(ResultKind.RESPONSE_BODY_EMITTER, AsyncResults.getResultKind(ResponseBodyEmitter.class));
+        assertEquals(ResultKind.RESPONSE_BODY_EMITTER, AsyncResults.getResultKind(SseEmitter.class));
+        assertEquals(ResultKind.PLAIN, AsyncResults.getResultKind(String.class));
+    }
+
+    @Test
+    public void when_ReturnTypeIsCallableSubtype_then_ItIsNotWrapped() {
+        assertEquals(ResultKind.PLAIN, AsyncResults.getResultKind(NamedCallable.class));
+    }
+
+    private interface NamedCallable extends Callable<String> {
+
+        String getName();
+    }
+
+    @Test
+    public void when_FutureCompletes_then_ListenerIsNotifiedOnlyThen() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+
+        assertSame(future, AsyncResults.observe(future, ResultKind.COMPLETION_STAGE, 0, listener));
+        assertTrue(results.isEmpty());
+
+        future.complete("foo");
+        assertEquals(Arrays.asList("foo"), results);
+        assertEquals(Arrays.asList((Throwable)null), failures);
+    }
+
+    @Test
+    public void when_DependentFutureFails_then_ListenerGetsTheOriginalException() {
+        IllegalStateException exception = new IllegalStateException("Intentionally thrown exception");
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> future = source.thenApply(value -> value);
+
+        AsyncResults.observe(future, ResultKind.COMPLETION_STAGE, 0, listener);
+        source.completeExceptionally(exception);
+
+        assertEquals(Arrays.asList((Object)null), results);
+        assertEquals(Arrays.asList(exception), failures);
+    }
+
+    @Test
+    public void when_ListenableFutureCompletes_then_ListenerIsNotified() {
+        SettableListenableFuture<String> future = new SettableListenableFuture<>();
+
+        AsyncResults.observe(future, ResultKind.LISTENABLE_FUTURE, 0, listener);
+        future.set("foo");
+
+        assertEquals(Arrays.asList("foo"), results);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void when_CallableIsCalled_then_ListenerGetsItsValueOrException() throws Exception {
+        Callable<Object> callable = (Callable<Object>)AsyncResults.observe(
+                (Callable<String>)() -> "foo", ResultKind.CALLABLE, 0, listener
+        );
+
+        assertTrue(results.isEmpty());
+        assertEquals("foo", callable.call());
+        assertEquals(Arrays.asList("foo"), results);
+
+        IllegalStateException exception = new IllegalStateException("Intentionally thrown exception");
+        Callable<Object> failing = (Callable<Object>)AsyncResults.observe(
+                (Callable<String>)() -> {
+                    throw exception;
+                },
+                ResultKind.CALLABLE,
+                0,
+                listener
+        );
+
+        try {
+            failing.call();
+            fail("Exception of callable is expected to be rethrown");
+        } catch (IllegalStateException e) {
+            assertSame(exception, e);
+        }
+        assertEquals(exception, failures.get(1));
+    }
+
+    @Test
+    public void when_DeferredResultIsReturnedOutsideOfRequest_then_ItCannotBeObserved() {
+        assertNull(AsyncResults.observe(new DeferredResult<String>(), ResultKind.DEFERRED_RESULT, 0, listener));
+    }
+
+    @Test
+    public void when_DeferredResultIsSet_then_ListenerIsNotifiedThroughRequestsAsyncManager() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+
+        DeferredResult<String> deferredResult = new DeferredResult<>();
+        assertSame(deferredResult, AsyncResults.observe(deferredResult, ResultKind.DEFERRED_RESULT, 0, listener));
+
+        // done by Spring MVC once the controller method returned
+        asyncManager.startDeferredResultProcessing(deferredResult);
+        assertTrue(results.isEmpty());
+
+        deferredResult.setResult("foo");
+        assertEquals(Arrays.asList("foo"), results);
+        assertEquals(Arrays.asList((Throwable)null), failures);
+    }
+
+    @Test
+    public void when_StreamingResponseBodyIsWritten_then_ListenerGetsNumberOfBytesWithoutBuffering() throws Exception {
+        StreamingResponseBody body = outputStream -> {
+            outputStream.write('a');
+            outputStream.write("bcd".getBytes("UTF-8"));
+        };
+        StreamingResponseBody observed = (StreamingResponseBody)AsyncResults.observe(
+                body, ResultKind.STREAMING_RESPONSE_BODY, System.nanoTime(), listener
+        );
+
+        assertTrue(results.isEmpty());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        observed.writeTo(outputStream);
+
+        assertEquals("abcd", outputStream.toString("UTF-8"));
+        StreamSummary summary = (StreamSummary)results.get(0);
+        assertEquals(-1, summary.getElementCount());
+        assertEquals(4, summary.getByteCount());
+        assertTrue(summary.getTimeToFirstElementNanos() >= 0);
+        assertEquals(Arrays.asList((Throwable)null), failures);
+    }
+
+    @Test
+    public void when_StreamingResponseBodyFails_then_ListenerGetsTheExceptionAndItIsRethrown() {
+        IOException exception = new IOException("Intentionally thrown exception");
+        StreamingResponseBody observed = (StreamingResponseBody)AsyncResults.observe(
+                (StreamingResponseBody)outputStream -> {
+                    throw exception;
+                },
+                ResultKind.STREAMING_RESPONSE_BODY,
+                0,
+                listener
+        );
+
+        try {
+            observed.writeTo(new ByteArrayOutputStream());
+            fail("Exception of streaming response body is expected to be rethrown");
+        } catch (IOException e) {
+            assertSame(exception, e);
+        }
+        assertEquals(Arrays.asList((Object)null), results);
+        assertEquals(Arrays.asList(exception), failures);
+    }
+
+    @Test
+    public void when_StreamingResponseBodyIsReturnedInEntity_then_EntityWithObservedBodyIsReturned() throws Exception {
+        StreamingResponseBody body = outputStream -> outputStream.write("abcd".getBytes("UTF-8"));
+        ResponseEntity<StreamingResponseBody> entity = ResponseEntity.status(HttpStatus.CREATED)
+                .header(HttpHeaders.LOCATION, "/exports/1")
+                .body(body);
+
+        ResponseEntity<?> observed = (ResponseEntity<?>)AsyncResults.observe(
+                entity, ResultKind.STREAMING_RESPONSE_BODY, System.nanoTime(), listener
+        );
+
+        assertEquals(HttpStatus.CREATED, observed.getStatusCode());
+        assertEquals("/exports/1", observed.getHeaders().getFirst(HttpHeaders.LOCATION));
+        assertTrue(results.isEmpty());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ((StreamingResponseBody)observed.getBody()).writeTo(outputStream);
+
+        assertEquals("abcd", outputStream.toString("UTF-8"));
+        assertEquals(4, ((StreamSummary)results.get(0)).getByteCount());
+        assertEquals(Arrays.asList((Throwable)null), failures);
+    }
+
+    @Test
+    public void when_EntityHasNoStreamedBody_then_ItCannotBeObserved() {
+        ResponseEntity<StreamingResponseBody> entity = ResponseEntity.notFound().build();
+        assertNull(AsyncResults.observe(entity, ResultKind.STREAMING_RESPONSE_BODY, 0, listener));
+        assertTrue(results.isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.logger.controller.utils;
+
+import io.github.logger.controller.bean.LatencySnapshot;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestLatencyHistogram {
+
+    @Test
+    public void when_NothingIsRecorded_then_SnapshotIsEmpty() {
+        LatencySnapshot snapshot = new LatencyHistogram(1, TimeUnit.MINUTES, 4).snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getErrorCount());
+        assertEquals(0, snapshot.getP99());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(TimeUnit.MINUTES.toNanos(1), snapshot.getWindowNanos());
+    }
+
+    @Test
+    public void when_ValuesAreRecorded_then_PercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram(1, TimeUnit.MINUTES, 4);
+        for (long i = 1; i <= 1000; ++i) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i), i % 100 == 0);
+        }
+
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(10, snapshot.getErrorCount());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1000), snapshot.getMax());
+        assertWithinPrecision(TimeUnit.MICROSECONDS.toNanos(500), snapshot.getP50());
+        assertWithinPrecision(TimeUnit.MICROSECONDS.toNanos(900), snapshot.getP90());
+        assertWithinPrecision(TimeUnit.MICROSECONDS.toNanos(990), snapshot.getP99());
+        assertWithinPrecision(TimeUnit.MICROSECONDS.toNanos(999), snapshot.getP999());
+    }
+
+    @Test
+    public void when_ValueExceedsTrackableRange_then_ItIsStillCountedAndReportedAsMax() {
+        LatencyHistogram histogram = new LatencyHistogram(1, TimeUnit.MINUTES, 4);
+        histogram.record(TimeUnit.HOURS.toNanos(1), false);
+
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        assertEquals(1, snapshot.getCount());
+        assertEquals(TimeUnit.HOURS.toNanos(1), snapshot.getMax());
+    }
+
+    @Test
+    public void when_WindowHasPassed_then_OldValuesAreNotReported() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram(40, TimeUnit.MILLISECONDS, 2);
+        histogram.record(1000, false);
+
+        Thread.sleep(100);
+
+        assertEquals(0, histogram.snapshot().getCount());
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual, Math.abs(expected - actual) <= expected / 32);
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.logger.controller.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestMessageBuffers {
+
+    @Test
+    public void when_BufferIsReleased_then_ItIsReusedEmptyByNextAcquire() {
+        MessageBuffers messageBuffers = new MessageBuffers();
+
+        StringBuilder buffer = messageBuffers.acquire(0);
+        assertEquals("getUser() took [0 ms]", messageBuffers.release(buffer.append("getUser() took [0 ms]")));
+
+        StringBuilder reused = messageBuffers.acquire(0);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.length());
+    }
+
+    @Test
+    public void when_BufferIsAcquiredReentrantly_then_FreshBufferIsReturned() {
+        MessageBuffers messageBuffers = new MessageBuffers();
+        messageBuffers.release(messageBuffers.acquire(0));
+
+        StringBuilder outer = messageBuffers.acquire(0).append("outer");
+        StringBuilder inner = messageBuffers.acquire(0).append("inner");
+
+        assertNotSame(outer, inner);
+        assertEquals("inner", messageBuffers.release(inner));
+        assertEquals("outer", messageBuffers.release(outer));
+    }
+
+    @Test
+    public void when_ExpectedLengthIsGiven_then_BufferIsSizedUpFront() {
+        MessageBuffers messageBuffers = new MessageBuffers();
+
+        assertTrue(messageBuffers.acquire(5000).capacity() >= 5000);
+        assertTrue(messageBuffers.acquire(10 * MessageBuffers.MAX_RETAINED_CAPACITY).capacity()
+                <= MessageBuffers.MAX_RETAINED_CAPACITY);
+    }
+
+    @Test
+    public void when_BufferGrewBeyondRetainedCapacity_then_ItIsNotReused() {
+        MessageBuffers messageBuffers = new MessageBuffers();
+
+        StringBuilder buffer = messageBuffers.acquire(0);
+        for (int i = 0; i <= MessageBuffers.MAX_RETAINED_CAPACITY; ++i) {
+            buffer.append('x');
+        }
+        messageBuffers.release(buffer);
+
+        assertNotSame(buffer, messageBuffers.acquire(0));
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.logger.controller.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestPayloadSampler {
+
+    @Test
+    public void when_RateIsOneOrZero_then_AllOrNoCallsAreSampled() {
+        PayloadSampler always = PayloadSampler.fixedRate(1);
+        PayloadSampler never = PayloadSampler.fixedRate(0);
+
+        for (int i = 0; i < 1000; ++i) {
+            assertTrue(always.sample());
+            assertFalse(never.sample());
+        }
+    }
+
+    @Test
+    public void when_RateIsFractional_then_RoughlyThatFractionOfCallsIsSampled() {
+        PayloadSampler sampler = PayloadSampler.fixedRate(0.1);
+
+        int sampled = 0;
+        for (int i = 0; i < 100000; ++i) {
+            if (sampler.sample()) {
+                ++sampled;
+            }
+        }
+
+        assertTrue(sampled > 8000 && sampled < 12000);
+    }
+
+    @Test
+    public void when_PermitsPerSecondAreUsedUp_then_FurtherCallsAreNotSampled() {
+        PayloadSampler sampler = PayloadSampler.perSecond(5);
+
+        int sampled = 0;
+        for (int i = 0; i < 1000; ++i) {
+            if (sampler.sample()) {
+                ++sampled;
+            }
+        }
+
+        // one second's worth of burst, plus whatever got refilled while looping
+        assertTrue(sampled >= 5 && sampled <= 6);
+    }
+
+    @Test
+    public void when_PermitsPerSecondIsZero_then_NoCallIsSampled() {
+        assertFalse(PayloadSampler.perSecond(0).sample());
+        assertEquals(PayloadSampler.always(), PayloadSampler.fixedRate(2));
+    }
+}
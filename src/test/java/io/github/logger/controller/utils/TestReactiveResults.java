@@ -0,0 +1,152 @@
+package io.github.logger.controller.utils;
+
+import io.github.logger.controller.bean.ResultKind;
+import io.github.logger.controller.bean.StreamSummary;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.ParallelFlux;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestReactiveResults {
+
+    private final List<Object> results = new ArrayList<>();
+
+    private final List<Throwable> failures = new ArrayList<>();
+
+    private final CompletionListener listener = (result, failure) -> {
+        results.add(result);
+        failures.add(failure);
+    };
+
+    @Test
+    public void when_ReturnTypeIsReactive_then_ItsKindIsResolved() {
+        assertEquals(ResultKind.MONO, ReactiveResults.getResultKind(Mono.class));
+        assertEquals(ResultKind.FLUX, ReactiveResults.getResultKind(Flux.class));
+        assertEquals(ResultKind.PUBLISHER, ReactiveResults.getResultKind(Publisher.class));
+        assertEquals(ResultKind.PLAIN, ReactiveResults.getResultKind(String.class));
+    }
+
+    @Test
+    public void when_ReturnTypeIsSubtypeOfReactiveType_then_ItIsNotWrapped() {
+        // a wrapper would not be an instance of the declared return type
+        assertEquals(ResultKind.PLAIN, ReactiveResults.getResultKind(ParallelFlux.class));
+        assertEquals(ResultKind.PLAIN, ReactiveResults.getResultKind(MonoProcessor.class));
+        assertEquals(ResultKind.PLAIN, ReactiveResults.getResultKind(DirectProcessor.class));
+    }
+
+    @Test
+    public void when_MonoCompletes_then_ListenerGetsItsValueOnce() {
+        Mono<?> mono = (Mono<?>)ReactiveResults.decorate(
+                Mono.just("foo"), ResultKind.MONO, System.nanoTime(), listener
+        );
+
+        assertTrue(results.isEmpty());
+        assertEquals("foo", mono.block());
+        assertEquals(Arrays.asList("foo"), results);
+        assertEquals(Arrays.asList((Throwable)null), failures);
+    }
+
+    @Test
+    public void when_MonoFails_then_ListenerGetsTheFailure() {
+        IllegalStateException exception = new IllegalStateException("Intentionally thrown exception");
+        Mono<?> mono = (Mono<?>)ReactiveResults.decorate(
+                Mono.error(exception), ResultKind.MONO, System.nanoTime(), listener
+        );
+
+        try {
+            mono.block();
+            fail("Exception of Mono is expected to reach the subscriber");
+        } catch (IllegalStateException e) {
+            assertSame(exception, e);
+        }
+        assertEquals(Arrays.asList((Object)null), results);
+        assertEquals(Arrays.asList(exception), failures);
+    }
+
+    @Test
+    public void when_FluxCompletes_then_ElementsAndBytesAreCountedWithoutBeingKept() {
+        Flux<?> flux = (Flux<?>)ReactiveResults.decorate(
+                Flux.just("foo", new byte[5], "barbaz"), ResultKind.FLUX, System.nanoTime(), listener
+        );
+
+        assertEquals(3, flux.collectList().block().size());
+        assertEquals(1, results.size());
+
+        StreamSummary summary = (StreamSummary)results.get(0);
+        assertEquals(3, summary.getElementCount());
+        assertEquals(14, summary.getByteCount());
+        assertTrue(summary.getTimeToFirstElementNanos() >= 0);
+        assertFalse(summary.isCancelled());
+        assertNull(failures.get(0));
+    }
+
+    @Test
+    public void when_StreamIsCancelled_then_SummaryIsMarkedCancelled() {
+        Publisher<?> publisher = (Publisher<?>)ReactiveResults.decorate(
+                Flux.range(1, 10), ResultKind.PUBLISHER, System.nanoTime(), listener
+        );
+
+        assertEquals(Arrays.asList(1, 2, 3), Flux.from(publisher).take(3).collectList().block());
+
+        StreamSummary summary = (StreamSummary)results.get(0);
+        assertEquals(3, summary.getElementCount());
+        assertTrue(summary.isCancelled());
+    }
+
+    @Test
+    public void when_ResultIsSubscribedTwice_then_EachSubscriptionIsReported() {
+        Flux<?> flux = (Flux<?>)ReactiveResults.decorate(Flux.just(1, 2), ResultKind.FLUX, System.nanoTime(), listener);
+
+        flux.blockLast();
+        flux.blockLast();
+
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    public void when_ResultIsDecorated_then_SubscriberContextStillReachesTheSource() {
+        Mono<?> mono = (Mono<?>)ReactiveResults.decorate(
+                Mono.subscriberContext().map(context -> context.get("user")),
+                ResultKind.MONO,
+                System.nanoTime(),
+                listener
+        );
+        Flux<?> flux = (Flux<?>)ReactiveResults.decorate(
+                Flux.from(Mono.subscriberContext().map(context -> context.get("user"))),
+                ResultKind.FLUX,
+                System.nanoTime(),
+                listener
+        );
+
+        assertEquals("foo", mono.subscriberContext(Context.of("user", "foo")).block());
+        assertEquals("foo", flux.subscriberContext(Context.of("user", "foo")).blockLast());
+        assertEquals("foo", results.get(0));
+        assertEquals(1, ((StreamSummary)results.get(1)).getElementCount());
+    }
+
+    @Test
+    public void when_PlainPublisherIsDecorated_then_ElementsAreCounted() {
+        Publisher<Integer> source = subscriber -> Flux.just(1, 2).subscribe(subscriber);
+        Publisher<?> publisher = (Publisher<?>)ReactiveResults.decorate(
+                source, ResultKind.PUBLISHER, System.nanoTime(), listener
+        );
+
+        assertEquals(Arrays.asList(1, 2), Flux.from(publisher).collectList().block());
+        assertEquals(2, ((StreamSummary)results.get(0)).getElementCount());
+    }
+}
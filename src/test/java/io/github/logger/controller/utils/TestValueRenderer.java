@@ -0,0 +1,108 @@
+package io.github.logger.controller.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestValueRenderer {
+
+    private static String render(ValueRenderer renderer, Object value) {
+        StringBuilder target = new StringBuilder();
+        renderer.render(value, target);
+        return target.toString();
+    }
+
+    @Test
+    public void when_ValueIsSimple_then_ItIsRenderedAsToStringWould() {
+        ValueRenderer renderer = new ValueRenderer(100, 5, 1000);
+
+        assertEquals("null", render(renderer, null));
+        assertEquals("Hello, World!", render(renderer, "Hello, World!"));
+        assertEquals("1", render(renderer, 1));
+        assertEquals("-5000000000", render(renderer, -5000000000L));
+        assertEquals("true", render(renderer, true));
+        assertEquals("1.5", render(renderer, 1.5));
+        assertEquals("[a, b]", render(renderer, Arrays.asList("a", "b")));
+        assertEquals("{a=1, b=[2, 3]}", render(renderer, new LinkedHashMap<String, Object>() {{
+            put("a", 1);
+            put("b", Arrays.asList(2, 3));
+        }}));
+    }
+
+    @Test
+    public void when_ArrayIsRendered_then_ObjectArraysAreRenderedElementWiseAndPrimitiveArraysAsLengthAndHash() {
+        ValueRenderer renderer = new ValueRenderer(100, 5, 1000);
+        byte[] bytes = {1, 2, 3};
+
+        assertEquals("[a, null, [1, 2]]", render(renderer, new Object[]{"a", null, new Integer[]{1, 2}}));
+        assertEquals("byte[3]#" + Integer.toHexString(Arrays.hashCode(bytes)), render(renderer, bytes));
+        assertEquals("int[0]#1", render(renderer, new int[0]));
+    }
+
+    @Test
+    public void when_CollectionExceedsMaxElements_then_RemainingElementsAreCounted() {
+        ValueRenderer renderer = new ValueRenderer(3, 5, 1000);
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            list.add(i);
+        }
+        Map<Integer, Integer> map = new LinkedHashMap<>();
+        for (int i = 0; i < 5; ++i) {
+            map.put(i, i);
+        }
+
+        assertEquals("[0, 1, 2, ... 7 more]", render(renderer, list));
+        assertEquals("[0, 1, 2, ... 7 more]", render(renderer, list.toArray()));
+        assertEquals("{0=0, 1=1, 2=2, ... 2 more}", render(renderer, map));
+    }
+
+    @Test
+    public void when_NestingExceedsMaxDepth_then_DeeperContainersAreElided() {
+        ValueRenderer renderer = new ValueRenderer(100, 2, 1000);
+        Object nested = Collections.singletonList(Collections.singletonList(Collections.singletonList(
+                Collections.singletonMap("a", 1))));
+
+        assertEquals("[[[...]]]", render(renderer, nested));
+    }
+
+    @Test
+    public void when_CollectionContainsItself_then_RenderingTerminates() {
+        ValueRenderer renderer = new ValueRenderer(100, 0, 1000);
+        List<Object> list = new ArrayList<>();
+        list.add(list);
+
+        assertEquals("[(this Collection)]", render(renderer, list));
+    }
+
+    @Test
+    public void when_StringExceedsMaxChars_then_ItIsTruncatedAndMarked() {
+        ValueRenderer renderer = new ValueRenderer(100, 5, 5);
+
+        assertEquals("abcde", render(renderer, "abcde"));
+        assertEquals("abcde...[truncated, 8 chars]", render(renderer, "abcdefgh"));
+        assertEquals("[abcde...[truncated, 6 chars]]", render(renderer, Collections.singletonList("abcdef")));
+        // surrogate pair is not split
+        assertEquals("abcd...[truncated, 6 chars]", render(renderer, "abcd\uD83D\uDE00"));
+    }
+
+    @Test
+    public void when_LimitsAreZero_then_NothingIsTruncated() {
+        ValueRenderer renderer = new ValueRenderer(0, 0, 0);
+        StringBuilder longString = new StringBuilder();
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 2000; ++i) {
+            longString.append('x');
+            list.add(i);
+        }
+
+        assertEquals(longString.toString(), render(renderer, longString));
+        assertEquals(list.toString(), render(renderer, list));
+    }
+}